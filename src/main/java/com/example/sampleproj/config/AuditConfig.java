@@ -0,0 +1,60 @@
+package com.example.sampleproj.config;
+
+import com.example.sampleproj.model.AuthAuditEvent;
+import com.example.sampleproj.service.AuditSink;
+import com.example.sampleproj.service.AuthenticationAuditLog;
+import com.example.sampleproj.service.FileAuditSink;
+import com.example.sampleproj.service.JdbcAuditSink;
+import com.example.sampleproj.service.LogAuditSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+public class AuditConfig {
+
+    @Value("${app.audit.sink:log}")
+    private String sink;
+
+    @Value("${app.audit.file:./logs/auth-audit.jsonl}")
+    private String file;
+
+    @Value("${app.audit.jdbc.table:AUTH_AUDIT}")
+    private String table;
+
+    @Value("${app.audit.buffer-size:8192}")
+    private int bufferSize;
+
+    @Value("${app.audit.batch-size:256}")
+    private int batchSize;
+
+    @Value("${app.audit.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    /**
+     * Login audit trail; {@code app.audit.sink} picks where it goes:
+     * {@code log} (JSON lines on the {@code audit} logger), {@code file},
+     * {@code jdbc} or {@code none}.
+     */
+    @Bean(destroyMethod = "close")
+    public AuthenticationAuditLog authenticationAuditLog(ObjectMapper objectMapper,
+                                                         ObjectProvider<DataSource> dataSource) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(AuthAuditEvent.class);
+        AuditSink auditSink = switch (sink) {
+            case "log" -> new LogAuditSink(writer);
+            case "file" -> new FileAuditSink(Path.of(file), writer);
+            case "jdbc" -> new JdbcAuditSink(dataSource.getObject(), table);
+            case "none" -> events -> { };
+            default -> throw new IllegalStateException("Unknown app.audit.sink: " + sink);
+        };
+        return new AuthenticationAuditLog(auditSink, bufferSize, batchSize, Duration.ofMillis(flushIntervalMillis));
+    }
+}
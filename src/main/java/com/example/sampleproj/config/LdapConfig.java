@@ -1,10 +1,11 @@
 package com.example.sampleproj.config;
 
+import com.example.sampleproj.security.PooledLdapContextSource;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.ldap.core.LdapTemplate;
-import org.springframework.ldap.core.support.LdapContextSource;
+import org.springframework.ldap.pool2.factory.PoolConfig;
 
 @Configuration
 public class LdapConfig {
@@ -21,11 +22,46 @@ public class LdapConfig {
     @Value("${spring.ldap.password}")
     private String ldapPassword;
 
+    @Value("${app.ldap.pool.min-idle:1}")
+    private int poolMinIdle;
+
+    @Value("${app.ldap.pool.max-idle:8}")
+    private int poolMaxIdle;
+
+    @Value("${app.ldap.pool.max-total:16}")
+    private int poolMaxTotal;
+
+    @Value("${app.ldap.pool.max-wait-ms:2000}")
+    private long poolMaxWaitMillis;
+
+    @Value("${app.ldap.pool.eviction-interval-ms:60000}")
+    private long poolEvictionIntervalMillis;
+
+    @Value("${app.ldap.pool.min-evictable-idle-ms:300000}")
+    private long poolMinEvictableIdleMillis;
+
+    /**
+     * The one LDAP context source, shared by LDAP login and
+     * {@link #ldapTemplate}. Search connections bound as the manager DN are
+     * pooled; limits apply separately to read-only and read-write
+     * connections. Pool metrics are published over JMX under
+     * {@code org.apache.commons.pool2:type=GenericKeyedObjectPool,name=ldap*}.
+     */
     @Bean
-    public LdapContextSource ldapContextSource() {
-        LdapContextSource contextSource = new LdapContextSource();
-        contextSource.setUrl(ldapUrls);
-        contextSource.setBase(ldapBase);
+    public PooledLdapContextSource ldapContextSource() {
+        PoolConfig poolConfig = new PoolConfig();
+        poolConfig.setMinIdlePerKey(poolMinIdle);
+        poolConfig.setMaxIdlePerKey(poolMaxIdle);
+        poolConfig.setMaxTotalPerKey(poolMaxTotal);
+        poolConfig.setMaxWaitMillis(poolMaxWaitMillis);
+        poolConfig.setTestOnBorrow(true);
+        poolConfig.setTestWhileIdle(true);
+        poolConfig.setTimeBetweenEvictionRunsMillis(poolEvictionIntervalMillis);
+        poolConfig.setMinEvictableIdleTimeMillis(poolMinEvictableIdleMillis);
+        poolConfig.setJmxEnabled(true);
+        poolConfig.setJmxNamePrefix("ldap");
+
+        PooledLdapContextSource contextSource = new PooledLdapContextSource(ldapUrls + "/" + ldapBase, poolConfig);
         contextSource.setUserDn(ldapUsername);
         contextSource.setPassword(ldapPassword);
         return contextSource;
@@ -35,4 +71,4 @@ public class LdapConfig {
     public LdapTemplate ldapTemplate() {
         return new LdapTemplate(ldapContextSource());
     }
-}
\ No newline at end of file
+}
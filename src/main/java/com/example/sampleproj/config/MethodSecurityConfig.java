@@ -0,0 +1,77 @@
+package com.example.sampleproj.config;
+
+import com.example.sampleproj.security.CompiledPreAuthorizeAuthorizationManager;
+import com.example.sampleproj.security.RoleBits;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+/**
+ * {@code @PreAuthorize} support. With
+ * {@code app.security.authorization.mode=compiled} (the default) role
+ * expressions are compiled to role-mask checks; {@code spel} evaluates every
+ * expression on every call, as Spring Security does out of the box. Only
+ * {@code @PreAuthorize} is enabled, which is all the controllers use; in
+ * compiled mode their expressions are compiled once the context is
+ * refreshed instead of on each method's first request.
+ */
+@Configuration
+@EnableMethodSecurity(prePostEnabled = false)
+public class MethodSecurityConfig {
+
+    @Bean
+    static RoleBits roleBits(@Value("${app.security.authorization.roles:ADMIN,MODERATOR,VIEWER}") String[] roles,
+                             @Value("${app.security.authorization.role-hierarchy:ADMIN > MODERATOR > VIEWER}") String hierarchy) {
+        return RoleBits.of(List.of(roles), hierarchy);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor preAuthorizeAdvisor(@Value("${app.security.authorization.mode:compiled}") String mode,
+                                       RoleBits roleBits, ApplicationContext context) {
+        DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        expressionHandler.setApplicationContext(context);
+        expressionHandler.setRoleHierarchy(roleBits);
+        PreAuthorizeAuthorizationManager spel = new PreAuthorizeAuthorizationManager();
+        spel.setExpressionHandler(expressionHandler);
+        spel.setApplicationContext(context);
+        return switch (mode) {
+            case "compiled" -> {
+                CompiledPreAuthorizeAuthorizationManager compiled = new CompiledPreAuthorizeAuthorizationManager(roleBits, spel);
+                if (context instanceof ConfigurableApplicationContext configurable) {
+                    configurable.addApplicationListener(event -> {
+                        if (event instanceof ContextRefreshedEvent refreshed) {
+                            precompileControllers(refreshed.getApplicationContext(), compiled);
+                        }
+                    });
+                }
+                yield AuthorizationManagerBeforeMethodInterceptor.preAuthorize(compiled);
+            }
+            case "spel" -> AuthorizationManagerBeforeMethodInterceptor.preAuthorize(spel);
+            default -> throw new IllegalStateException("Unknown app.security.authorization.mode: " + mode);
+        };
+    }
+
+    private static void precompileControllers(ApplicationContext context, CompiledPreAuthorizeAuthorizationManager compiled) {
+        for (String name : context.getBeanNamesForAnnotation(Controller.class)) {
+            Class<?> type = context.getType(name);
+            if (type != null) {
+                compiled.precompile(ClassUtils.getUserClass(type));
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.sampleproj.config;
+
+import com.example.sampleproj.service.CustomOAuth2UserService;
+import com.example.sampleproj.service.CustomOidcUserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AuthorizationCodeGrantRequest;
+import org.springframework.security.oauth2.client.endpoint.RestClientAuthorizationCodeTokenResponseClient;
+import org.springframework.security.oauth2.client.http.OAuth2ErrorResponseErrorHandler;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenDecoderFactory;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenValidator;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.http.converter.OAuth2AccessTokenResponseHttpMessageConverter;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtDecoderFactory;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestOperations;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HTTP clients for the OAuth2 login flow. Every call to the provider (token
+ * endpoint, JWK set, userinfo) gets short connect and read timeouts, so a
+ * slow provider fails the login quickly instead of holding request threads.
+ */
+@Configuration
+public class OAuth2ClientConfig {
+
+    @Value("${app.security.oauth2.connect-timeout-ms:2000}")
+    private long connectTimeoutMillis;
+
+    @Value("${app.security.oauth2.read-timeout-ms:3000}")
+    private long readTimeoutMillis;
+
+    @Value("${app.security.oidc.required-claims:email,name}")
+    private String[] oidcRequiredClaims;
+
+    @Value("${app.security.oidc.userinfo-cache.ttl-seconds:300}")
+    private long userInfoCacheTtlSeconds;
+
+    @Value("${app.security.oidc.userinfo-cache.max-entries:10000}")
+    private int userInfoCacheMaxEntries;
+
+    /**
+     * Client for userinfo requests, used by {@link CustomOAuth2UserService}
+     * and, through it, by the OIDC fallback.
+     */
+    @Bean
+    public RestOperations oauth2RestOperations() {
+        RestTemplate restTemplate = new RestTemplate(requestFactory());
+        restTemplate.setErrorHandler(new OAuth2ErrorResponseErrorHandler());
+        return restTemplate;
+    }
+
+    @Bean
+    public OAuth2AccessTokenResponseClient<OAuth2AuthorizationCodeGrantRequest> authorizationCodeTokenResponseClient() {
+        RestClientAuthorizationCodeTokenResponseClient client = new RestClientAuthorizationCodeTokenResponseClient();
+        client.setRestClient(RestClient.builder()
+            .requestFactory(requestFactory())
+            .messageConverters(converters -> {
+                converters.clear();
+                converters.add(new FormHttpMessageConverter());
+                converters.add(new OAuth2AccessTokenResponseHttpMessageConverter());
+            })
+            .defaultStatusHandler(new OAuth2ErrorResponseErrorHandler())
+            .build());
+        return client;
+    }
+
+    /**
+     * Same validation as Spring Security's default ID token decoder, with
+     * the JWK set fetched through the timed client. Decoders (and the keys
+     * they cache) are kept per registration.
+     */
+    @Bean
+    public JwtDecoderFactory<ClientRegistration> idTokenDecoderFactory() {
+        RestTemplate jwkSetClient = new RestTemplate(requestFactory());
+        Map<String, JwtDecoder> decoders = new ConcurrentHashMap<>();
+        return registration -> decoders.computeIfAbsent(registration.getRegistrationId(), id -> {
+            String jwkSetUri = registration.getProviderDetails().getJwkSetUri();
+            if (!StringUtils.hasText(jwkSetUri)) {
+                throw new OAuth2AuthenticationException(new OAuth2Error("missing_signature_verifier",
+                    "No JWK set URI for client registration '" + id + "'", null));
+            }
+            NimbusJwtDecoder decoder = NimbusJwtDecoder.withJwkSetUri(jwkSetUri)
+                .jwsAlgorithm(SignatureAlgorithm.RS256)
+                .restOperations(jwkSetClient)
+                .build();
+            decoder.setJwtValidator(new OidcIdTokenValidator(registration));
+            decoder.setClaimSetConverter(OidcIdTokenDecoderFactory.createDefaultClaimTypeConverter());
+            return decoder;
+        });
+    }
+
+    @Bean
+    public CustomOidcUserService customOidcUserService(CustomOAuth2UserService customOAuth2UserService) {
+        return new CustomOidcUserService(customOAuth2UserService, Set.of(oidcRequiredClaims),
+            Duration.ofSeconds(userInfoCacheTtlSeconds), userInfoCacheMaxEntries);
+    }
+
+    private SimpleClientHttpRequestFactory requestFactory() {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(Duration.ofMillis(connectTimeoutMillis));
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMillis));
+        return factory;
+    }
+}
@@ -1,37 +1,80 @@
 package com.example.sampleproj.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.ObjectPostProcessor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.authentication.AuthenticationEventPublisher;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
-import org.springframework.security.ldap.DefaultSpringSecurityContextSource;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyAuthoritiesMapper;
+import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
+import org.springframework.security.core.authority.mapping.SimpleAuthorityMapper;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AuthorizationCodeGrantRequest;
+import org.springframework.security.oauth2.client.web.OAuth2LoginAuthenticationFilter;
+import org.springframework.security.ldap.authentication.BindAuthenticator;
+import org.springframework.security.ldap.authentication.LdapAuthenticationProvider;
+import org.springframework.security.ldap.search.FilterBasedLdapUserSearch;
+import org.springframework.security.ldap.search.LdapUserSearch;
+import org.springframework.security.ldap.userdetails.DefaultLdapAuthoritiesPopulator;
+import org.springframework.security.ldap.userdetails.LdapAuthoritiesPopulator;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import com.example.sampleproj.security.AuditingAuthenticationManager;
+import com.example.sampleproj.security.BoundedPasswordEncoder;
+import com.example.sampleproj.security.CachingDaoAuthenticationProvider;
+import com.example.sampleproj.security.CachingLdapAuthoritiesPopulator;
+import com.example.sampleproj.security.CachingLdapUserSearch;
+import com.example.sampleproj.security.IteratedPbkdf2PasswordEncoder;
+import com.example.sampleproj.security.LoginFailureHandler;
+import com.example.sampleproj.security.LoginThrottle;
+import com.example.sampleproj.security.PooledLdapContextSource;
+import com.example.sampleproj.security.RealmRoutingAuthenticationProvider;
+import com.example.sampleproj.security.RoleBits;
+import com.example.sampleproj.security.RoleMaskAuthorizationManager;
+import com.example.sampleproj.security.SignedTokenService;
+import com.example.sampleproj.security.ThrottlingAuthenticationProvider;
+import com.example.sampleproj.security.TokenAuthenticationFilter;
+import com.example.sampleproj.service.AuthenticationAuditLog;
 import com.example.sampleproj.service.CustomOAuth2UserService;
+import com.example.sampleproj.service.CustomOidcUserService;
 import com.example.sampleproj.service.FileBasedUserDetailsService;
 
 @Configuration
 @EnableWebSecurity
-@EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
-    @Value("${spring.ldap.urls}")
-    private String ldapUrls;
-
-    @Value("${spring.ldap.base}")
-    private String ldapBase;
-
-    @Value("${spring.ldap.username}")
-    private String ldapUsername;
-
-    @Value("${spring.ldap.password}")
-    private String ldapPassword;
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
 
     @Value("${app.ldap.user-search-filter}")
     private String userSearchFilter;
@@ -42,34 +85,232 @@ public class SecurityConfig {
     @Value("${app.ldap.group-search-base}")
     private String groupSearchBase;
 
+    @Value("${app.security.realms.ldap-username-pattern:}")
+    private String ldapUsernamePattern;
+
+    @Value("${app.ldap.cache.enabled:true}")
+    private boolean ldapCacheEnabled;
+
+    @Value("${app.ldap.cache.ttl-seconds:300}")
+    private long ldapCacheTtlSeconds;
+
+    @Value("${app.ldap.cache.negative-ttl-seconds:60}")
+    private long ldapCacheNegativeTtlSeconds;
+
+    @Value("${app.ldap.cache.max-entries:10000}")
+    private int ldapCacheMaxEntries;
+
+    @Value("${app.security.password-encoder:bcrypt}")
+    private String passwordEncoderId;
+
+    @Value("${app.security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${app.security.argon2.memory-kib:19456}")
+    private int argon2MemoryKib;
+
+    @Value("${app.security.argon2.iterations:2}")
+    private int argon2Iterations;
+
+    @Value("${app.security.argon2.parallelism:1}")
+    private int argon2Parallelism;
+
+    @Value("${app.security.pbkdf2.iterations:600000}")
+    private int pbkdf2Iterations;
+
+    @Value("${app.security.password-hashing.threads:0}")
+    private int passwordHashingThreads;
+
+    @Value("${app.security.password-hashing.queue-capacity:64}")
+    private int passwordHashingQueueCapacity;
+
+    @Value("${app.security.password-hashing.retry-after-seconds:1}")
+    private long loginRetryAfterSeconds;
+
+    @Value("${app.security.credential-cache.enabled:false}")
+    private boolean credentialCacheEnabled;
+
+    @Value("${app.security.credential-cache.ttl-seconds:300}")
+    private long credentialCacheTtlSeconds;
+
+    @Value("${app.security.credential-cache.max-entries:10000}")
+    private int credentialCacheMaxEntries;
+
+    @Value("${app.security.token.secret:}")
+    private String tokenSecret;
+
+    @Value("${app.security.token.ttl-seconds:900}")
+    private long tokenTtlSeconds;
+
+    @Value("${app.security.login-throttle.enabled:true}")
+    private boolean loginThrottleEnabled;
+
+    @Value("${app.security.login-throttle.window-seconds:300}")
+    private long loginThrottleWindowSeconds;
+
+    @Value("${app.security.login-throttle.max-failures-per-user:10}")
+    private int loginThrottleMaxFailuresPerUser;
+
+    @Value("${app.security.login-throttle.max-failures-per-address:0}")
+    private int loginThrottleMaxFailuresPerAddress;
+
+    @Value("${app.security.login-throttle.capacity:65536}")
+    private int loginThrottleCapacity;
+
+    @Value("${app.security.public-endpoints:/health,/hello,/api/}")
+    private String[] publicEndpoints;
+
+    @Value("${app.security.authorization.mode:compiled}")
+    private String authorizationMode;
+
     @Autowired
     private CustomOAuth2UserService customOAuth2UserService;
 
+    @Autowired
+    private CustomOidcUserService customOidcUserService;
+
+    @Autowired
+    private OAuth2AccessTokenResponseClient<OAuth2AuthorizationCodeGrantRequest> authorizationCodeTokenResponseClient;
+
     @Autowired
     private FileBasedUserDetailsService fileBasedUserDetailsService;
 
+    @Autowired
+    private PooledLdapContextSource ldapContextSource;
+
+    @Autowired
+    private AuthenticationEventPublisher authenticationEventPublisher;
+
+    @Autowired
+    private AuthenticationAuditLog authenticationAuditLog;
+
+    @Autowired
+    private RoleBits roleBits;
+
+    /**
+     * Probe and smoke-check endpoints ({@code app.security.public-endpoints}),
+     * open to anyone. Their chain has no filters that work per request: no
+     * session or security context lookup, no CSRF token, request cache or
+     * anonymous user. It keeps the security headers, which are constant
+     * writes, because {@code /hello} echoes its input. Switch it off with
+     * {@code app.security.public-chain.enabled=false} to put them back
+     * behind login.
+     */
+    @Bean
+    @Order(0)
+    @ConditionalOnProperty(name = "app.security.public-chain.enabled", havingValue = "true", matchIfMissing = true)
+    public SecurityFilterChain publicFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(publicEndpoints)
+            .securityContext(context -> context.disable())
+            .sessionManagement(session -> session.disable())
+            .requestCache(cache -> cache.disable())
+            .anonymous(anonymous -> anonymous.disable())
+            .csrf(csrf -> csrf.disable())
+            .logout(logout -> logout.disable())
+            .servletApi(servletApi -> servletApi.disable())
+            .exceptionHandling(exceptions -> exceptions.disable());
+
+        return http.build();
+    }
+
+    /**
+     * Stateless chain for API clients, enabled with
+     * {@code app.security.token.enabled=true}. Requests authenticate with a
+     * bearer token from {@code POST /api/auth/token}; no session is read or
+     * created, so any node sharing the token secret can serve any request.
+     */
+    @Bean
+    @Order(1)
+    @ConditionalOnProperty(name = "app.security.token.enabled", havingValue = "true")
+    public SecurityFilterChain apiFilterChain(HttpSecurity http) throws Exception {
+        AuthenticationEntryPoint unauthorized = (request, response, exception) -> {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        };
+        http
+            .securityMatcher("/api/**", "/admin/api", "/moderator/api", "/viewer/api")
+            .authorizeHttpRequests(authz -> authz
+                .requestMatchers(HttpMethod.POST, "/api/auth/token").permitAll()
+                .requestMatchers("/admin/**").access(anyRole("ADMIN"))
+                .requestMatchers("/moderator/**").access(anyRole("MODERATOR"))
+                .requestMatchers("/viewer/**").access(anyRole("VIEWER"))
+                .anyRequest().authenticated()
+            )
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .addFilterBefore(new TokenAuthenticationFilter(signedTokenService(), unauthorized),
+                UsernamePasswordAuthenticationFilter.class)
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(unauthorized)
+                .accessDeniedHandler((request, response, exception) -> response.setStatus(HttpStatus.FORBIDDEN.value()))
+            )
+            .csrf(csrf -> csrf.disable());
+
+        return http.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.security.token.enabled", havingValue = "true")
+    public SignedTokenService signedTokenService() {
+        byte[] secret;
+        if (tokenSecret.isBlank()) {
+            // Tokens then only verify on this node and until it restarts
+            log.warn("app.security.token.secret is not set; using a random key");
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        } else {
+            secret = Base64.getDecoder().decode(tokenSecret);
+        }
+        SignedTokenService tokens = new SignedTokenService(secret, Duration.ofSeconds(tokenTtlSeconds));
+        tokens.setAuthoritiesMapper(roleAuthoritiesMapper());
+        return tokens;
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/login", "/oauth2/**").permitAll()
-                .requestMatchers("/admin/**").hasRole("ADMIN")
-                .requestMatchers("/moderator/**").hasAnyRole("ADMIN", "MODERATOR")
-                .requestMatchers("/viewer/**").hasAnyRole("ADMIN", "MODERATOR", "VIEWER")
+                .requestMatchers("/admin/**").access(anyRole("ADMIN"))
+                .requestMatchers("/moderator/**").access(anyRole("MODERATOR"))
+                .requestMatchers("/viewer/**").access(anyRole("VIEWER"))
                 .anyRequest().authenticated()
             )
             .formLogin(form -> form
                 .loginPage("/login")
                 .defaultSuccessUrl("/", true)
+                .failureHandler(new LoginFailureHandler("/login?error", loginRetryAfterSeconds))
                 .permitAll()
+                // Only form login goes through the realm router; the chain's own
+                // manager keeps the providers that oauth2Login registers
+                .withObjectPostProcessor(new ObjectPostProcessor<UsernamePasswordAuthenticationFilter>() {
+                    @Override
+                    public <O extends UsernamePasswordAuthenticationFilter> O postProcess(O filter) {
+                        filter.setAuthenticationManager(authenticationManager());
+                        return filter;
+                    }
+                })
             )
             .oauth2Login(oauth2 -> oauth2
                 .loginPage("/login")
                 .defaultSuccessUrl("/", true)
+                .tokenEndpoint(token -> token
+                    .accessTokenResponseClient(authorizationCodeTokenResponseClient)
+                )
                 .userInfoEndpoint(userInfo -> userInfo
                     .userService(customOAuth2UserService)
+                    .oidcUserService(customOidcUserService)
+                    .userAuthoritiesMapper(roleAuthoritiesMapper())
                 )
+                .withObjectPostProcessor(new ObjectPostProcessor<OAuth2LoginAuthenticationFilter>() {
+                    @Override
+                    public <O extends OAuth2LoginAuthenticationFilter> O postProcess(O filter) {
+                        filter.setAuthenticationManager(new AuditingAuthenticationManager(
+                            http.getSharedObject(AuthenticationManager.class), authenticationAuditLog));
+                        return filter;
+                    }
+                })
             )
             .logout(logout -> logout
                 .logoutSuccessUrl("/login?logout")
@@ -81,34 +322,119 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Role check for a URL pattern, with the role hierarchy applied: a bit
+     * test against the user's role mask in {@code compiled} authorization
+     * mode, Spring's authority comparison in {@code spel} mode.
+     */
+    private AuthorizationManager<RequestAuthorizationContext> anyRole(String... roles) {
+        if ("compiled".equals(authorizationMode)) {
+            return RoleMaskAuthorizationManager.hasAnyRole(roleBits, roles);
+        }
+        AuthorityAuthorizationManager<RequestAuthorizationContext> manager = AuthorityAuthorizationManager.hasAnyRole(roles);
+        manager.setRoleHierarchy(roleBits);
+        return manager;
+    }
+
+    /**
+     * Expands each login's roles through the hierarchy once, into
+     * authorities that carry the role mask every later check reads.
+     */
     @Bean
-    public DefaultSpringSecurityContextSource contextSource() {
-        return new DefaultSpringSecurityContextSource(ldapUrls + "/" + ldapBase);
+    public GrantedAuthoritiesMapper roleAuthoritiesMapper() {
+        return new RoleHierarchyAuthoritiesMapper(roleBits);
     }
 
+    /**
+     * Each stored hash names its algorithm in a {@code {id}} prefix, so users
+     * can be on bcrypt, argon2 or pbkdf2 at the same time. New hashes use
+     * {@code app.security.password-encoder} with the configured cost, and
+     * {@code upgradeEncoding} reports hashes made with another algorithm or a
+     * lower cost so they are re-encoded on the next login. PBKDF2 does not
+     * record its iteration count in the hash, so it goes into the id
+     * ({@code {pbkdf2@600000}}); see {@link IteratedPbkdf2PasswordEncoder}.
+     * Hashing runs on its own bounded pool (one thread per core by default)
+     * so a burst of logins cannot occupy every request thread.
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put("argon2", new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKib, argon2Iterations));
+        encoders.put(IteratedPbkdf2PasswordEncoder.id(pbkdf2Iterations),
+            IteratedPbkdf2PasswordEncoder.withIterations(pbkdf2Iterations));
+        // Spring Security's own {pbkdf2}, with its fixed default iteration count
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        String idForEncode = "pbkdf2".equals(passwordEncoderId)
+            ? IteratedPbkdf2PasswordEncoder.id(pbkdf2Iterations) : passwordEncoderId;
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(idForEncode, encoders);
+        // Older pbkdf2@N hashes, and hashes without a prefix, which predate the
+        // delegating encoder and are plain bcrypt
+        encoder.setDefaultPasswordEncoderForMatches(new IteratedPbkdf2PasswordEncoder(encoders.get("bcrypt")));
+        int threads = passwordHashingThreads > 0 ? passwordHashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(encoder, threads, passwordHashingQueueCapacity);
     }
 
+    /**
+     * Routes each login to the file-based users or LDAP by username rather
+     * than trying one and catching its failure before the other, and records
+     * every attempt in the audit log. Usernames and client addresses with too
+     * many recent failures are turned away before either realm is asked.
+     */
     @Bean
-    public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
-        AuthenticationManagerBuilder authBuilder = http.getSharedObject(AuthenticationManagerBuilder.class);
-        
-        // Add file-based authentication
-        authBuilder
-            .userDetailsService(fileBasedUserDetailsService)
-            .passwordEncoder(passwordEncoder());
-        
-        // Add LDAP authentication
-        authBuilder
-            .ldapAuthentication()
-            .userSearchFilter(userSearchFilter)
-            .userSearchBase(userSearchBase)
-            .groupSearchBase(groupSearchBase)
-            .contextSource(contextSource())
-            .rolePrefix("ROLE_");
-
-        return authBuilder.build();
+    public AuthenticationManager authenticationManager() {
+        Pattern ldapUsernames = ldapUsernamePattern.isBlank() ? null : Pattern.compile(ldapUsernamePattern);
+        AuthenticationProvider provider = new RealmRoutingAuthenticationProvider(
+            fileBasedUserDetailsService::userExists, fileAuthenticationProvider(),
+            ldapUsernames, ldapAuthenticationProvider());
+        if (loginThrottleEnabled) {
+            provider = new ThrottlingAuthenticationProvider(provider, new LoginThrottle(
+                Duration.ofSeconds(loginThrottleWindowSeconds), loginThrottleMaxFailuresPerUser,
+                loginThrottleMaxFailuresPerAddress, loginThrottleCapacity));
+        }
+        ProviderManager manager = new ProviderManager(provider);
+        manager.setAuthenticationEventPublisher(authenticationEventPublisher);
+        return new AuditingAuthenticationManager(manager, authenticationAuditLog);
+    }
+
+    /**
+     * Same setup as {@code ldapAuthentication()} would build, but with the
+     * user and group searches optionally cached so that a repeat login only
+     * binds.
+     */
+    private LdapAuthenticationProvider ldapAuthenticationProvider() {
+        LdapUserSearch userSearch = new FilterBasedLdapUserSearch(userSearchBase, userSearchFilter, ldapContextSource);
+        DefaultLdapAuthoritiesPopulator groupSearch = new DefaultLdapAuthoritiesPopulator(ldapContextSource, groupSearchBase);
+        groupSearch.setGroupSearchFilter("(uniqueMember={0})");
+        groupSearch.setRolePrefix("ROLE_");
+        LdapAuthoritiesPopulator authoritiesPopulator = groupSearch;
+        if (ldapCacheEnabled) {
+            userSearch = new CachingLdapUserSearch(userSearch, Duration.ofSeconds(ldapCacheTtlSeconds),
+                Duration.ofSeconds(ldapCacheNegativeTtlSeconds), ldapCacheMaxEntries);
+            authoritiesPopulator = new CachingLdapAuthoritiesPopulator(groupSearch,
+                Duration.ofSeconds(ldapCacheTtlSeconds), ldapCacheMaxEntries);
+        }
+
+        BindAuthenticator authenticator = new BindAuthenticator(ldapContextSource);
+        authenticator.setUserSearch(userSearch);
+        SimpleAuthorityMapper prefixMapper = new SimpleAuthorityMapper();
+        prefixMapper.setPrefix("ROLE_");
+        GrantedAuthoritiesMapper roleMapper = roleAuthoritiesMapper();
+        LdapAuthenticationProvider provider = new LdapAuthenticationProvider(authenticator, authoritiesPopulator);
+        provider.setAuthoritiesMapper(authorities -> roleMapper.mapAuthorities(prefixMapper.mapAuthorities(authorities)));
+        return provider;
+    }
+
+    private DaoAuthenticationProvider fileAuthenticationProvider() {
+        // Optionally skip the password hash for credentials verified within the TTL
+        DaoAuthenticationProvider provider = credentialCacheEnabled
+            ? new CachingDaoAuthenticationProvider(fileBasedUserDetailsService,
+                Duration.ofSeconds(credentialCacheTtlSeconds), credentialCacheMaxEntries)
+            : new DaoAuthenticationProvider(fileBasedUserDetailsService);
+        provider.setPasswordEncoder(passwordEncoder());
+        provider.setAuthoritiesMapper(roleAuthoritiesMapper());
+        // Re-encode outdated hashes with the current algorithm and cost after a successful login
+        provider.setUserDetailsPasswordService(fileBasedUserDetailsService);
+        return provider;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,157 @@
+package com.example.sampleproj.config;
+
+import com.example.sampleproj.repository.JdbcSessionCleaner;
+import com.example.sampleproj.repository.LazySessionRepository;
+import com.example.sampleproj.security.CompactSessionSerializer;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.session.JdbcSessionDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.init.PlatformPlaceholderDatabaseDriverResolver;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.boot.sql.init.DatabaseInitializationSettings;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.jdbc.config.annotation.SpringSessionDataSource;
+import org.springframework.session.jdbc.config.annotation.SpringSessionTransactionManager;
+import org.springframework.session.jdbc.config.annotation.web.http.EnableJdbcHttpSession;
+import org.springframework.session.web.http.SessionRepositoryFilter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.EnumSet;
+
+/**
+ * Keeps HTTP sessions in a database instead of Tomcat's memory
+ * ({@code app.session.jdbc.enabled=true}), so they survive restarts and are
+ * shared between instances. Sessions use the application datasource unless
+ * {@code app.session.jdbc.url} names a separate database. Boot's own session
+ * auto-configuration is excluded in {@code SampleProjApplication}, since it
+ * would switch JDBC sessions on whenever Spring Session is on the classpath.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.session.jdbc.enabled", havingValue = "true")
+@EnableJdbcHttpSession(cleanupCron = Scheduled.CRON_DISABLED)
+public class SessionConfig {
+
+    @Value("${app.session.jdbc.initialize-schema:embedded}")
+    private DatabaseInitializationMode initializeSchema;
+
+    @Value("${server.servlet.session.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${app.session.jdbc.touch-interval-seconds:60}")
+    private long touchIntervalSeconds;
+
+    @Value("${app.session.jdbc.cleanup-interval-seconds:60}")
+    private long cleanupIntervalSeconds;
+
+    @Value("${app.session.jdbc.cleanup-batch-size:500}")
+    private int cleanupBatchSize;
+
+    @Autowired
+    private GrantedAuthoritiesMapper roleAuthoritiesMapper;
+
+    @Bean
+    public SessionRepositoryCustomizer<JdbcIndexedSessionRepository> jdbcSessionRepositoryCustomizer() {
+        GenericConversionService conversionService = new GenericConversionService();
+        CompactSessionSerializer serializer = new CompactSessionSerializer(getClass().getClassLoader());
+        serializer.setAuthoritiesMapper(roleAuthoritiesMapper);
+        conversionService.addConverter(Object.class, byte[].class, serializer::serialize);
+        conversionService.addConverter(byte[].class, Object.class, serializer::deserialize);
+        return repository -> {
+            repository.setDefaultMaxInactiveInterval(timeout);
+            repository.setConversionService(conversionService);
+        };
+    }
+
+    /**
+     * The repository the session filter actually uses: the JDBC repository,
+     * skipping writes for requests that changed nothing.
+     */
+    @Bean
+    @Primary
+    public LazySessionRepository<?> lazySessionRepository(JdbcIndexedSessionRepository jdbcSessionRepository) {
+        return LazySessionRepository.wrap(jdbcSessionRepository, Duration.ofSeconds(touchIntervalSeconds));
+    }
+
+    @Bean
+    public FilterRegistrationBean<SessionRepositoryFilter<?>> sessionRepositoryFilterRegistration(SessionRepositoryFilter<?> filter) {
+        FilterRegistrationBean<SessionRepositoryFilter<?>> registration = new FilterRegistrationBean<>(filter);
+        registration.setDispatcherTypes(EnumSet.of(DispatcherType.ASYNC, DispatcherType.ERROR, DispatcherType.REQUEST));
+        registration.setOrder(SessionRepositoryFilter.DEFAULT_ORDER);
+        return registration;
+    }
+
+    @Bean
+    public JdbcSessionDataSourceScriptDatabaseInitializer jdbcSessionSchemaInitializer(
+            @SpringSessionDataSource ObjectProvider<DataSource> sessionDataSource, ObjectProvider<DataSource> dataSource) {
+        DataSource target = sessionDataSource(sessionDataSource, dataSource);
+        DatabaseInitializationSettings settings = new DatabaseInitializationSettings();
+        settings.setSchemaLocations(new PlatformPlaceholderDatabaseDriverResolver()
+            .resolveAll(target, "classpath:org/springframework/session/jdbc/schema-@@platform@@.sql"));
+        settings.setMode(initializeSchema);
+        return new JdbcSessionDataSourceScriptDatabaseInitializer(target, settings);
+    }
+
+    @Bean(destroyMethod = "close")
+    public JdbcSessionCleaner jdbcSessionCleaner(
+            @SpringSessionDataSource ObjectProvider<DataSource> sessionDataSource, ObjectProvider<DataSource> dataSource) {
+        JdbcSessionCleaner cleaner = new JdbcSessionCleaner(sessionDataSource(sessionDataSource, dataSource),
+            JdbcIndexedSessionRepository.DEFAULT_TABLE_NAME, cleanupBatchSize);
+        cleaner.start(Duration.ofSeconds(cleanupIntervalSeconds));
+        return cleaner;
+    }
+
+    private static DataSource sessionDataSource(ObjectProvider<DataSource> sessionDataSource, ObjectProvider<DataSource> dataSource) {
+        DataSource separate = sessionDataSource.getIfAvailable();
+        return separate != null ? separate : dataSource.getObject();
+    }
+
+    /**
+     * A separate session database. Not a default candidate, so the
+     * application datasource is still auto-configured and injected
+     * everywhere else.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "app.session.jdbc.url")
+    static class SeparateSessionDatabase {
+
+        @Value("${app.session.jdbc.url}")
+        private String url;
+
+        @Value("${app.session.jdbc.username:}")
+        private String username;
+
+        @Value("${app.session.jdbc.password:}")
+        private String password;
+
+        @Bean(defaultCandidate = false)
+        @SpringSessionDataSource
+        public DataSource sessionDataSource() {
+            return DataSourceBuilder.create()
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        }
+
+        @Bean(defaultCandidate = false)
+        @SpringSessionTransactionManager
+        public PlatformTransactionManager sessionTransactionManager(@SpringSessionDataSource DataSource sessionDataSource) {
+            return new DataSourceTransactionManager(sessionDataSource);
+        }
+    }
+}
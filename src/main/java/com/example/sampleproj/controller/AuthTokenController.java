@@ -0,0 +1,73 @@
+package com.example.sampleproj.controller;
+
+import com.example.sampleproj.security.LoginThrottledException;
+import com.example.sampleproj.security.PasswordHashingRejectedException;
+import jakarta.servlet.http.HttpServletRequest;
+import com.example.sampleproj.security.SignedTokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exchanges a username and password for a signed bearer token, for API
+ * clients in stateless mode ({@code app.security.token.enabled=true}).
+ */
+@RestController
+@RequestMapping("/api/auth")
+@ConditionalOnProperty(name = "app.security.token.enabled", havingValue = "true")
+public class AuthTokenController {
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private SignedTokenService tokenService;
+
+    @Value("${app.security.password-hashing.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @PostMapping("/token")
+    public ResponseEntity<Map<String, Object>> issueToken(@RequestParam String username, @RequestParam String password,
+                                                          HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken login = UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+        login.setDetails(new WebAuthenticationDetails(request));
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(login);
+        } catch (LoginThrottledException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .build();
+        } catch (AuthenticationException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("access_token", tokenService.issue(authentication));
+        body.put("token_type", "Bearer");
+        body.put("expires_in", tokenService.getTtl().toSeconds());
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noStore())
+            .body(body);
+    }
+}
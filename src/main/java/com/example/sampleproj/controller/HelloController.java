@@ -1,5 +1,6 @@
 package com.example.sampleproj.controller;
 
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -12,7 +13,8 @@ public class HelloController {
         return "Welcome to Sample Spring Boot Project!";
     }
     
-    @GetMapping("/hello")
+    // Plain text, so the echoed name is never rendered as markup
+    @GetMapping(value = "/hello", produces = MediaType.TEXT_PLAIN_VALUE)
     public String hello(@RequestParam(defaultValue = "World") String name) {
         return String.format("Hello, %s!", name);
     }
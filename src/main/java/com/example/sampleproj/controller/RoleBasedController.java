@@ -30,7 +30,7 @@ public class RoleBasedController {
     }
 
     @GetMapping("/moderator")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
+    @PreAuthorize("hasRole('MODERATOR')")
     public String moderatorPage(Model model) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         model.addAttribute("username", auth.getName());
@@ -41,14 +41,14 @@ public class RoleBasedController {
     }
 
     @GetMapping("/moderator/api")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
+    @PreAuthorize("hasRole('MODERATOR')")
     @ResponseBody
     public String moderatorApi() {
         return "Moderator API - Content management access for user: " + SecurityContextHolder.getContext().getAuthentication().getName();
     }
 
     @GetMapping("/viewer")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'VIEWER')")
+    @PreAuthorize("hasRole('VIEWER')")
     public String viewerPage(Model model) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         model.addAttribute("username", auth.getName());
@@ -59,7 +59,7 @@ public class RoleBasedController {
     }
 
     @GetMapping("/viewer/api")
-    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'VIEWER')")
+    @PreAuthorize("hasRole('VIEWER')")
     @ResponseBody
     public String viewerApi() {
         return "Viewer API - Read-only access for user: " + SecurityContextHolder.getContext().getAuthentication().getName();
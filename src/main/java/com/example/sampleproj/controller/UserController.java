@@ -1,52 +1,175 @@
 package com.example.sampleproj.controller;
 
 import com.example.sampleproj.model.User;
+import com.example.sampleproj.model.UserImportResult;
+import com.example.sampleproj.service.UserBulkService;
+import com.example.sampleproj.service.UserChangeFeed;
+import com.example.sampleproj.service.UserSearchService;
 import com.example.sampleproj.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/users")
 @CrossOrigin(origins = "*")
 public class UserController {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_SEARCH_RESULTS = 100;
     
     @Autowired
     private UserService userService;
+
+    @Autowired
+    private UserBulkService userBulkService;
+
+    @Autowired
+    private UserSearchService userSearchService;
+
+    @Autowired
+    private UserChangeFeed userChangeFeed;
+
+    @Autowired
+    private ObjectMapper objectMapper;
     
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<User>> getAllUsers(@RequestParam(required = false) Long after,
+                                                  @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                                  WebRequest request) {
+        // Read the version before the data: a change in between can only make
+        // the ETag older than the body, which costs the client one extra fetch
+        if (request.checkNotModified("\"" + Long.toHexString(userService.getStoreVersion()) + "\"")) {
+            return null;
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra user to find out whether another page follows
+        List<User> users = userService.getUsersAfter(after, pageSize + 1);
+        if (users.size() <= pageSize) {
+            return ResponseEntity.ok(users);
+        }
+        List<User> page = users.subList(0, pageSize);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, String.valueOf(page.get(pageSize - 1).getId()))
+                .body(page);
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                userService.forEachUser(user -> {
+                    try {
+                        generator.writeObject(user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+    
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges() {
+        SseEmitter emitter = userChangeFeed.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<User>> searchUsers(@RequestParam String q,
+                                                  @RequestParam(defaultValue = "contains") String mode,
+                                                  @RequestParam(defaultValue = "20") int limit) {
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        int maxResults = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        return ResponseEntity.ok(userSearchService.search(q, "prefix".equalsIgnoreCase(mode), maxResults));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "ndjson") String format) {
+        UserBulkService.Format exportFormat = UserBulkService.Format.fromName(format);
+        StreamingResponseBody body = out -> userBulkService.exportUsers(out, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + exportFormat.name().toLowerCase() + "\"")
+                .body(body);
+    }
+
+    @PostMapping(path = "/batch", consumes = {UserBulkService.NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<UserImportResult> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                        InputStream body) throws IOException {
+        UserImportResult result = userBulkService.importUsers(body, UserBulkService.Format.fromMediaType(contentType));
+        return ResponseEntity.ok(result);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<User> getUserById(@PathVariable Long id, WebRequest request) {
         Optional<User> user = userService.getUserById(id);
-        return user.map(ResponseEntity::ok)
-                   .orElse(ResponseEntity.notFound().build());
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(etagOf(user.get()))) {
+            return null;
+        }
+        return ResponseEntity.ok(user.get());
     }
     
     @PostMapping
     public ResponseEntity<User> createUser(@Valid @RequestBody User user) {
-        // Check if email already exists
-        if (userService.getUserByEmail(user.getEmail()).isPresent()) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).build();
-        }
-        
-        User createdUser = userService.createUser(user);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
+        return userService.createIfEmailAbsent(user)
+                .map(createdUser -> ResponseEntity.status(HttpStatus.CREATED).body(createdUser))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, @Valid @RequestBody User user) {
-        Optional<User> updatedUser = userService.updateUser(id, user);
-        return updatedUser.map(ResponseEntity::ok)
+    public ResponseEntity<User> updateUser(@PathVariable Long id, @Valid @RequestBody User user,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = null;
+        if (ifMatch != null) {
+            Optional<User> current = userService.getUserById(id);
+            if (current.isEmpty() || !ifMatchAccepts(ifMatch, etagOf(current.get()))) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+            // The store re-checks the version atomically with the write
+            expectedVersion = current.get().getVersion();
+        }
+        Optional<User> updatedUser;
+        try {
+            updatedUser = userService.updateUser(id, user, expectedVersion);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (DataIntegrityViolationException e) {
+            // The new email belongs to another user, as on POST
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return updatedUser.map(updated -> ResponseEntity.ok().eTag(etagOf(updated)).body(updated))
                           .orElse(ResponseEntity.notFound().build());
     }
     
@@ -61,4 +184,22 @@ public class UserController {
         long count = userService.getUserCount();
         return ResponseEntity.ok(count);
     }
-}
\ No newline at end of file
+
+    // Strong ETag of one user. The version changes on every update and the
+    // hash covers stores whose versions restart from 0 after a restart.
+    static String etagOf(User user) {
+        return "\"" + user.getVersion() + "-"
+                + Integer.toHexString(Objects.hash(user.getId(), user.getName(), user.getEmail())) + "\"";
+    }
+
+    private static boolean ifMatchAccepts(String ifMatch, String etag) {
+        for (String candidate : ifMatch.split(",")) {
+            String value = candidate.trim();
+            // Weak validators never match under the strong comparison If-Match requires
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.sampleproj.model;
+
+import java.time.Instant;
+
+/**
+ * One login attempt as written to the audit sink. {@code provider} is the
+ * realm or OAuth2 registration that handled it ({@code file}, {@code ldap},
+ * {@code google}, or {@code password} for a rejected form or token login);
+ * {@code reason} is the exception type of a failure.
+ */
+public record AuthAuditEvent(
+        Instant timestamp,
+        Outcome outcome,
+        String provider,
+        String username,
+        String remoteAddress,
+        String reason,
+        long latencyMicros) {
+
+    public enum Outcome {
+        SUCCESS, FAILURE
+    }
+}
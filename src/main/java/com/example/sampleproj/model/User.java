@@ -3,13 +3,21 @@ package com.example.sampleproj.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class User {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Name is required")
@@ -18,8 +26,13 @@ public class User {
     
     @Email(message = "Email should be valid")
     @NotBlank(message = "Email is required")
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true)
     private String email;
+
+    // Bumped on every update; the basis of the user's ETag
+    @Version
+    private Long version;
     
     // Default constructor
     public User() {}
@@ -54,6 +67,14 @@ public class User {
     public void setEmail(String email) {
         this.email = email;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
     
     @Override
     public String toString() {
@@ -61,6 +82,7 @@ public class User {
                 "id=" + id +
                 ", name='" + name + '\'' +
                 ", email='" + email + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.example.sampleproj.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk user import: how many lines were imported or rejected,
+ * plus the reason for each rejected line (capped so a bad file cannot blow
+ * up the response).
+ */
+public class UserImportResult {
+
+    private long imported;
+    private long failed;
+    private boolean errorsTruncated;
+    private final List<LineError> errors = new ArrayList<>();
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void addImported(long count) {
+        imported += count;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public List<LineError> getErrors() {
+        return errors;
+    }
+
+    public void addError(long line, String message, int maxErrors) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new LineError(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public static class LineError {
+        private final long line;
+        private final String message;
+
+        public LineError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.sampleproj.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * The single row holding the version of the users table. Every write
+ * through the JPA store bumps it in the same transaction, so all instances
+ * sharing the database agree on it without scanning the table.
+ */
+@Entity
+@Table(name = "user_store_version")
+public class UserStoreVersion {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long version;
+
+    protected UserStoreVersion() {}
+
+    public UserStoreVersion(long version) {
+        this.id = ID;
+        this.version = version;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.sampleproj.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes expired rows from the Spring Session JDBC tables in the
+ * background. Rows go in batches of at most {@code batchSize}, each its own
+ * short statement batch, so a large backlog of expired sessions never holds
+ * locks on the session table for long. Attribute rows go with their session
+ * through the schema's cascading foreign key. The delete repeats the expiry
+ * check, so a session refreshed after it was selected survives.
+ */
+public class JdbcSessionCleaner implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcSessionCleaner.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String selectExpired;
+    private final String deleteSession;
+    private final int batchSize;
+    private final Clock clock;
+    private ScheduledExecutorService scheduler;
+
+    public JdbcSessionCleaner(DataSource dataSource, String tableName, int batchSize) {
+        this(dataSource, tableName, batchSize, Clock.systemUTC());
+    }
+
+    JdbcSessionCleaner(DataSource dataSource, String tableName, int batchSize, Clock clock) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setMaxRows(batchSize);
+        this.selectExpired = "SELECT PRIMARY_ID FROM " + tableName + " WHERE EXPIRY_TIME < ?";
+        this.deleteSession = "DELETE FROM " + tableName + " WHERE PRIMARY_ID = ? AND EXPIRY_TIME < ?";
+        this.batchSize = batchSize;
+        this.clock = clock;
+    }
+
+    public synchronized void start(Duration interval) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::cleanUpQuietly, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Deletes every session that had expired when the call started and
+     * returns how many were removed.
+     */
+    public int cleanUpExpiredSessions() {
+        long now = clock.millis();
+        int deleted = 0;
+        List<String> ids;
+        do {
+            ids = jdbcTemplate.queryForList(selectExpired, String.class, now);
+            if (!ids.isEmpty()) {
+                int[][] counts = jdbcTemplate.batchUpdate(deleteSession, ids, ids.size(), (ps, id) -> {
+                    ps.setString(1, id);
+                    ps.setLong(2, now);
+                });
+                for (int[] batch : counts) {
+                    for (int count : batch) {
+                        deleted += Math.max(count, 0);
+                    }
+                }
+            }
+        } while (ids.size() == batchSize);
+        return deleted;
+    }
+
+    private void cleanUpQuietly() {
+        try {
+            int deleted = cleanUpExpiredSessions();
+            if (deleted > 0) {
+                log.debug("Removed {} expired sessions", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Expired session cleanup failed", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
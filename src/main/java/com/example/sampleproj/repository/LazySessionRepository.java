@@ -0,0 +1,140 @@
+package com.example.sampleproj.repository;
+
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Wraps an external {@link SessionRepository} so that a request writes its
+ * session only when something in it changed: a new session, a set or
+ * removed attribute, a new id or timeout. A request that merely touched the
+ * session saves it only once the last access time has moved on by at least
+ * {@code touchInterval}, so a session may expire up to that much earlier
+ * than its max inactive interval.
+ */
+public class LazySessionRepository<S extends Session> implements SessionRepository<LazySessionRepository.LazySession<S>> {
+
+    private final SessionRepository<S> delegate;
+    private final Duration touchInterval;
+
+    private LazySessionRepository(SessionRepository<S> delegate, Duration touchInterval) {
+        this.delegate = delegate;
+        this.touchInterval = touchInterval;
+    }
+
+    public static <S extends Session> LazySessionRepository<S> wrap(SessionRepository<S> delegate, Duration touchInterval) {
+        return new LazySessionRepository<>(delegate, touchInterval);
+    }
+
+    @Override
+    public LazySession<S> createSession() {
+        return new LazySession<>(delegate.createSession(), true);
+    }
+
+    @Override
+    public void save(LazySession<S> session) {
+        if (session.isNew || session.changed
+                || Duration.between(session.persistedLastAccessedTime, session.getLastAccessedTime()).compareTo(touchInterval) >= 0) {
+            delegate.save(session.delegate);
+            session.isNew = false;
+            session.changed = false;
+            session.persistedLastAccessedTime = session.getLastAccessedTime();
+        }
+    }
+
+    @Override
+    public LazySession<S> findById(String id) {
+        S session = delegate.findById(id);
+        return session != null ? new LazySession<>(session, false) : null;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        delegate.deleteById(id);
+    }
+
+    public static final class LazySession<S extends Session> implements Session {
+
+        private final S delegate;
+        private boolean isNew;
+        private boolean changed;
+        private Instant persistedLastAccessedTime;
+
+        private LazySession(S delegate, boolean isNew) {
+            this.delegate = delegate;
+            this.isNew = isNew;
+            this.persistedLastAccessedTime = delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            changed = true;
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            changed = true;
+            delegate.setAttribute(attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            if (delegate.getAttribute(attributeName) != null) {
+                changed = true;
+                delegate.removeAttribute(attributeName);
+            }
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            if (!interval.equals(delegate.getMaxInactiveInterval())) {
+                changed = true;
+                delegate.setMaxInactiveInterval(interval);
+            }
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.sampleproj.repository;
+
+import com.example.sampleproj.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@Repository
+public interface UserRepository extends JpaRepository<User, Long> {
+
+    List<User> findAllByOrderByIdAsc(Pageable pageable);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<User> streamAllByOrderByIdAsc();
+}
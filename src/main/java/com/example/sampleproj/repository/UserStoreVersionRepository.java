@@ -0,0 +1,26 @@
+package com.example.sampleproj.repository;
+
+import com.example.sampleproj.model.UserStoreVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface UserStoreVersionRepository extends JpaRepository<UserStoreVersion, Integer> {
+
+    @Query("select v.version from UserStoreVersion v where v.id = " + UserStoreVersion.ID)
+    Optional<Long> findVersion();
+
+    /**
+     * Joins the caller's transaction, so the bump commits or rolls back
+     * with the write it records.
+     */
+    @Transactional
+    @Modifying
+    @Query("update UserStoreVersion v set v.version = v.version + 1 where v.id = " + UserStoreVersion.ID)
+    int increment();
+}
@@ -0,0 +1,70 @@
+package com.example.sampleproj.security;
+
+import com.example.sampleproj.model.AuthAuditEvent;
+import com.example.sampleproj.service.AuthenticationAuditLog;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.ldap.userdetails.LdapUserDetails;
+import org.springframework.security.oauth2.client.authentication.OAuth2LoginAuthenticationToken;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * Times each authentication and records its outcome in the
+ * {@link AuthenticationAuditLog}. Successful logins name the realm that
+ * accepted them ({@code file}, {@code ldap} or the OAuth2 registration);
+ * a rejected username/password is recorded as {@code password}, since no
+ * single realm can be blamed.
+ */
+public class AuditingAuthenticationManager implements AuthenticationManager {
+
+    private final AuthenticationManager delegate;
+    private final AuthenticationAuditLog auditLog;
+
+    public AuditingAuthenticationManager(AuthenticationManager delegate, AuthenticationAuditLog auditLog) {
+        this.delegate = delegate;
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        long start = System.nanoTime();
+        Authentication result;
+        try {
+            result = delegate.authenticate(authentication);
+        } catch (AuthenticationException e) {
+            auditLog.record(AuthAuditEvent.Outcome.FAILURE, provider(authentication, "password"),
+                username(authentication), remoteAddress(authentication), e.getClass().getSimpleName(),
+                System.nanoTime() - start);
+            throw e;
+        }
+        auditLog.record(AuthAuditEvent.Outcome.SUCCESS, provider(result, "file"), username(result),
+            remoteAddress(authentication), null, System.nanoTime() - start);
+        return result;
+    }
+
+    private static String provider(Authentication authentication, String usernamePasswordProvider) {
+        if (authentication instanceof OAuth2LoginAuthenticationToken login) {
+            return login.getClientRegistration().getRegistrationId();
+        }
+        if (authentication.getPrincipal() instanceof LdapUserDetails) {
+            return "ldap";
+        }
+        return usernamePasswordProvider;
+    }
+
+    private static String username(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof OAuth2User user) {
+            Object email = user.getAttributes().get("email");
+            return email != null ? email.toString() : user.getName();
+        }
+        return authentication instanceof OAuth2LoginAuthenticationToken ? null : authentication.getName();
+    }
+
+    private static String remoteAddress(Authentication authentication) {
+        return authentication.getDetails() instanceof WebAuthenticationDetails details
+            ? details.getRemoteAddress()
+            : null;
+    }
+}
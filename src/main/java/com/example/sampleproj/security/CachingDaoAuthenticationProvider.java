@@ -0,0 +1,84 @@
+package com.example.sampleproj.security;
+
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * {@link DaoAuthenticationProvider} that remembers recently verified
+ * credentials, so a client logging in again within the TTL skips the
+ * deliberately slow password hash check.
+ * <p>
+ * Entries are keyed by an HMAC of username and password under a key that
+ * only lives in this process, so the cache never holds a password or a
+ * cheap unkeyed hash of one. The value is the stored password hash the
+ * credentials were verified against: once the user's hash changes (password
+ * reset, re-encoding), the entry no longer matches and the full check runs
+ * again. Failed attempts are never cached.
+ */
+public class CachingDaoAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final TtlCache<String, String> verified;
+    private final SecretKeySpec key;
+
+    public CachingDaoAuthenticationProvider(UserDetailsService userDetailsService, Duration ttl, int maxEntries) {
+        super(userDetailsService);
+        this.verified = new TtlCache<>(ttl, maxEntries);
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                  UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+        if (authentication.getCredentials() == null) {
+            throw new BadCredentialsException(messages.getMessage(
+                    "AbstractUserDetailsAuthenticationProvider.badCredentials", "Bad credentials"));
+        }
+        String cacheKey = cacheKey(userDetails.getUsername(), authentication.getCredentials().toString());
+        String storedHash = userDetails.getPassword();
+        String verifiedHash = verified.get(cacheKey);
+        if (verifiedHash != null) {
+            if (MessageDigest.isEqual(verifiedHash.getBytes(StandardCharsets.UTF_8),
+                    storedHash.getBytes(StandardCharsets.UTF_8))) {
+                return;
+            }
+            verified.remove(cacheKey);
+        }
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        verified.put(cacheKey, storedHash);
+    }
+
+    public void clearCache() {
+        verified.clear();
+    }
+
+    private String cacheKey(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            // Separator so ("ab", "c") and ("a", "bc") never share a key
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC_ALGORITHM + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.sampleproj.security;
+
+import org.springframework.ldap.core.DirContextOperations;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.ldap.userdetails.LdapAuthoritiesPopulator;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link LdapAuthoritiesPopulator} that keeps each user's authorities for a
+ * fixed time, keyed by the user's DN, instead of searching the group tree on
+ * every login. Group membership changes take effect once the entry expires.
+ * Users without any group are cached as well.
+ */
+public class CachingLdapAuthoritiesPopulator implements LdapAuthoritiesPopulator {
+
+    private final LdapAuthoritiesPopulator delegate;
+    private final TtlCache<String, List<GrantedAuthority>> authorities;
+
+    public CachingLdapAuthoritiesPopulator(LdapAuthoritiesPopulator delegate, Duration ttl, int maxEntries) {
+        this.delegate = delegate;
+        this.authorities = new TtlCache<>(ttl, maxEntries);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getGrantedAuthorities(DirContextOperations userData, String username) {
+        String userDn = userData.getNameInNamespace();
+        List<GrantedAuthority> cached = authorities.get(userDn);
+        if (cached == null) {
+            cached = List.copyOf(delegate.getGrantedAuthorities(userData, username));
+            authorities.put(userDn, cached);
+        }
+        return cached;
+    }
+
+    public void clearCache() {
+        authorities.clear();
+    }
+}
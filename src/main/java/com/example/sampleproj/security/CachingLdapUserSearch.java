@@ -0,0 +1,55 @@
+package com.example.sampleproj.security;
+
+import org.springframework.ldap.core.DirContextOperations;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.ldap.search.LdapUserSearch;
+
+import java.time.Duration;
+
+/**
+ * {@link LdapUserSearch} that remembers where each user's entry is, so a
+ * user who logs in again within the TTL goes straight to the bind. Unknown
+ * usernames are remembered too, for a separate and usually shorter TTL, so
+ * repeated attempts with a name the directory does not know cost nothing.
+ * <p>
+ * Only the lookup is cached: the password is always checked by binding to
+ * the directory, so a disabled account or changed password takes effect at
+ * once. A user who is moved or renamed in the directory is found at the old
+ * DN until the entry expires, and that bind fails.
+ */
+public class CachingLdapUserSearch implements LdapUserSearch {
+
+    private final LdapUserSearch delegate;
+    private final TtlCache<String, DirContextOperations> found;
+    private final TtlCache<String, Boolean> missing;
+
+    public CachingLdapUserSearch(LdapUserSearch delegate, Duration ttl, Duration negativeTtl, int maxEntries) {
+        this.delegate = delegate;
+        this.found = new TtlCache<>(ttl, maxEntries);
+        this.missing = new TtlCache<>(negativeTtl, maxEntries);
+    }
+
+    @Override
+    public DirContextOperations searchForUser(String username) {
+        DirContextOperations user = found.get(username);
+        if (user != null) {
+            return user;
+        }
+        if (missing.get(username) != null) {
+            throw new UsernameNotFoundException("User " + username + " not found in directory.");
+        }
+        try {
+            user = delegate.searchForUser(username);
+        } catch (UsernameNotFoundException e) {
+            missing.put(username, Boolean.TRUE);
+            throw e;
+        }
+        found.put(username, user);
+        return user;
+    }
+
+    public void clearCache() {
+        found.clear();
+        missing.clear();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.sampleproj.security;
+
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
+import org.springframework.security.core.authority.mapping.NullAuthoritiesMapper;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Serializes session attributes for an external session store. A
+ * {@link SecurityContext} holding a username/password login (file or LDAP
+ * realm) is written as its username and authority names only, a few dozen
+ * bytes instead of the kilobyte-plus Java serialization of the token, its
+ * principal and its details. The principal is restored as a
+ * {@link UserDetails} without a password, so password hashes never reach
+ * the store; request details (remote address) are not kept. Every other
+ * attribute, including OAuth2 logins, falls back to Java serialization.
+ * Values written by plain Java serialization are still readable.
+ */
+public class CompactSessionSerializer {
+
+    private static final byte JAVA_SERIALIZED = 0;
+    private static final byte USERNAME_PASSWORD_CONTEXT = 1;
+    private static final byte JAVA_STREAM_MAGIC = (byte) 0xAC;
+
+    private final SerializingConverter serializer = new SerializingConverter();
+    private final DeserializingConverter deserializer;
+    private GrantedAuthoritiesMapper authoritiesMapper = new NullAuthoritiesMapper();
+
+    public CompactSessionSerializer(ClassLoader classLoader) {
+        this.deserializer = new DeserializingConverter(classLoader);
+    }
+
+    /**
+     * Applied to the authorities of a compact context when it is read back,
+     * since only their names are stored.
+     */
+    public void setAuthoritiesMapper(GrantedAuthoritiesMapper authoritiesMapper) {
+        this.authoritiesMapper = authoritiesMapper;
+    }
+
+    public byte[] serialize(Object value) {
+        if (isCompactable(value)) {
+            return writeContext(((SecurityContext) value).getAuthentication());
+        }
+        byte[] serialized = serializer.convert(value);
+        byte[] bytes = new byte[serialized.length + 1];
+        bytes[0] = JAVA_SERIALIZED;
+        System.arraycopy(serialized, 0, bytes, 1, serialized.length);
+        return bytes;
+    }
+
+    public Object deserialize(byte[] bytes) {
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("Empty session attribute");
+        }
+        return switch (bytes[0]) {
+            case USERNAME_PASSWORD_CONTEXT -> readContext(bytes);
+            case JAVA_SERIALIZED -> deserializer.convert(Arrays.copyOfRange(bytes, 1, bytes.length));
+            case JAVA_STREAM_MAGIC -> deserializer.convert(bytes);
+            default -> throw new IllegalArgumentException("Unknown session attribute format " + bytes[0]);
+        };
+    }
+
+    private static boolean isCompactable(Object value) {
+        if (!(value instanceof SecurityContext context) || value.getClass() != SecurityContextImpl.class) {
+            return false;
+        }
+        Authentication authentication = context.getAuthentication();
+        return authentication != null
+            && authentication.getClass() == UsernamePasswordAuthenticationToken.class
+            && authentication.isAuthenticated()
+            && (authentication.getPrincipal() instanceof UserDetails || authentication.getPrincipal() instanceof String);
+    }
+
+    private static byte[] writeContext(Authentication authentication) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(USERNAME_PASSWORD_CONTEXT);
+            out.writeBoolean(authentication.getPrincipal() instanceof UserDetails);
+            out.writeUTF(authentication.getName());
+            Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+            out.writeShort(authorities.size());
+            for (GrantedAuthority authority : authorities) {
+                out.writeUTF(authority.getAuthority());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private SecurityContext readContext(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1))) {
+            boolean userDetails = in.readBoolean();
+            String username = in.readUTF();
+            int count = in.readUnsignedShort();
+            List<GrantedAuthority> names = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                names.add(new SimpleGrantedAuthority(in.readUTF()));
+            }
+            Collection<? extends GrantedAuthority> authorities = authoritiesMapper.mapAuthorities(names);
+            Object principal = userDetails
+                ? new User(username, "", authorities)
+                : username;
+            return new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.sampleproj.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@code @PreAuthorize} without evaluating SpEL on every call. Expressions
+ * made only of {@code hasRole}, {@code hasAnyRole}, {@code hasAuthority}
+ * and {@code hasAnyAuthority} over configured roles, joined by {@code or},
+ * are compiled into a {@link RoleMaskAuthorizationManager}, either up front
+ * by {@link #precompile} or the first time their method is called; later
+ * calls are a map lookup and a bit test.
+ * Anything else, or a role that {@link RoleBits} does not know, is left to
+ * the SpEL manager.
+ */
+public class CompiledPreAuthorizeAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final Pattern OR = Pattern.compile("\\s+or\\s+");
+    private static final Pattern TERM = Pattern.compile(
+        "(hasRole|hasAnyRole|hasAuthority|hasAnyAuthority)\\(\\s*('[^']*'(?:\\s*,\\s*'[^']*')*)\\s*\\)");
+    private static final Pattern LITERAL = Pattern.compile("'([^']*)'");
+
+    private final RoleBits roleBits;
+    private final AuthorizationManager<MethodInvocation> fallback;
+    private final Map<Method, Compiled> byMethod = new ConcurrentHashMap<>();
+    private final Map<MethodClassKey, Compiled> byMethodAndClass = new ConcurrentHashMap<>();
+
+    public CompiledPreAuthorizeAuthorizationManager(RoleBits roleBits, AuthorizationManager<MethodInvocation> fallback) {
+        this.roleBits = roleBits;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        return lookup(invocation.getMethod(), targetClass).manager.authorize(authentication, invocation);
+    }
+
+    @Deprecated
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        AuthorizationResult result = authorize(authentication, invocation);
+        return result == null || result instanceof AuthorizationDecision
+            ? (AuthorizationDecision) result
+            : new AuthorizationDecision(result.isGranted());
+    }
+
+    /**
+     * Compiles the expressions of every public {@code @PreAuthorize} method
+     * of {@code targetClass}, so their first calls do not pay for it.
+     */
+    public void precompile(Class<?> targetClass) {
+        boolean classAnnotated = AnnotatedElementUtils.hasAnnotation(targetClass, PreAuthorize.class);
+        for (Method method : targetClass.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers()) && method.getDeclaringClass() != Object.class
+                && (classAnnotated || AnnotatedElementUtils.hasAnnotation(method, PreAuthorize.class))) {
+                lookup(method, targetClass);
+            }
+        }
+    }
+
+    private Compiled lookup(Method method, Class<?> targetClass) {
+        // Almost always one target class per method, so look up by method alone first
+        Compiled compiled = byMethod.get(method);
+        if (compiled == null || compiled.targetClass != targetClass) {
+            compiled = byMethodAndClass.computeIfAbsent(new MethodClassKey(method, targetClass),
+                key -> new Compiled(targetClass, resolve(method, targetClass)));
+            byMethod.putIfAbsent(method, compiled);
+        }
+        return compiled;
+    }
+
+    int getCompiledCount() {
+        return byMethodAndClass.size();
+    }
+
+    private AuthorizationManager<MethodInvocation> resolve(Method method, Class<?> targetClass) {
+        Method specific = AopUtils.getMostSpecificMethod(method, targetClass);
+        PreAuthorize annotation = AnnotatedElementUtils.findMergedAnnotation(specific, PreAuthorize.class);
+        if (annotation == null && targetClass != null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, PreAuthorize.class);
+        }
+        if (annotation == null) {
+            return fallback;
+        }
+        Long required = compile(annotation.value());
+        return required != null ? RoleMaskAuthorizationManager.ofMask(roleBits, required) : fallback;
+    }
+
+    /**
+     * Mask of the roles any one of which satisfies the expression, or
+     * {@code null} if the expression is not a plain role check.
+     */
+    Long compile(String expression) {
+        long mask = 0;
+        for (String term : OR.split(expression.trim())) {
+            Matcher matcher = TERM.matcher(term);
+            if (!matcher.matches()) {
+                return null;
+            }
+            boolean role = matcher.group(1).startsWith("hasRole") || matcher.group(1).startsWith("hasAnyRole");
+            Matcher literals = LITERAL.matcher(matcher.group(2));
+            while (literals.find()) {
+                String name = literals.group(1);
+                String authority = role && !name.startsWith(RoleBits.ROLE_PREFIX) ? RoleBits.ROLE_PREFIX + name : name;
+                if (!roleBits.hasAuthority(authority)) {
+                    return null;
+                }
+                mask |= roleBits.maskOfRoles(authority);
+            }
+        }
+        return mask;
+    }
+
+    private record Compiled(Class<?> targetClass, AuthorizationManager<MethodInvocation> manager) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.sampleproj.security;
+
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PBKDF2 hashes that carry their iteration count in the id, as in
+ * {@code {pbkdf2@600000}...}, the way bcrypt and argon2 hashes carry their
+ * cost. Changing {@code app.security.pbkdf2.iterations} then only changes
+ * the id of new hashes; stored ones are still checked with the count they
+ * were made with, and {@link DelegatingPasswordEncoder#upgradeEncoding}
+ * flags them for re-encoding because their id differs.
+ * <p>
+ * An instance serves as the {@link DelegatingPasswordEncoder}'s fallback
+ * for ids it has no encoder for: {@code pbkdf2@N} hashes are checked with N
+ * iterations, and hashes without any id go to {@code unprefixed}.
+ */
+public class IteratedPbkdf2PasswordEncoder implements PasswordEncoder {
+
+    public static final String ID_PREFIX = "pbkdf2@";
+
+    // Stored hashes are trusted, but a typo should not cost minutes per login
+    private static final int MAX_ITERATIONS = 10_000_000;
+
+    private final PasswordEncoder unprefixed;
+    private final Map<Integer, PasswordEncoder> encoders = new ConcurrentHashMap<>();
+
+    public IteratedPbkdf2PasswordEncoder(PasswordEncoder unprefixed) {
+        this.unprefixed = unprefixed;
+    }
+
+    public static String id(int iterations) {
+        return ID_PREFIX + iterations;
+    }
+
+    public static PasswordEncoder withIterations(int iterations) {
+        return new Pbkdf2PasswordEncoder("", 16, iterations,
+            Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        throw new UnsupportedOperationException("Only checks existing hashes");
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String prefixEncodedPassword) {
+        if (prefixEncodedPassword == null) {
+            return false;
+        }
+        if (!prefixEncodedPassword.startsWith("{")) {
+            return unprefixed.matches(rawPassword, prefixEncodedPassword);
+        }
+        int start = 1 + ID_PREFIX.length();
+        int end = prefixEncodedPassword.indexOf('}');
+        if (!prefixEncodedPassword.startsWith(ID_PREFIX, 1) || end <= start) {
+            return false;
+        }
+        int iterations;
+        try {
+            iterations = Integer.parseInt(prefixEncodedPassword, start, end, 10);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (iterations < 1 || iterations > MAX_ITERATIONS) {
+            return false;
+        }
+        return encoders.computeIfAbsent(iterations, IteratedPbkdf2PasswordEncoder::withIterations)
+            .matches(rawPassword, prefixEncodedPassword.substring(end + 1));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.sampleproj.security;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+
+import java.io.IOException;
+
+/**
+ * Form login failure handler. Logins turned away because the server is
+ * busy get a 503 with {@code Retry-After} instead of the usual redirect to
+ * the login page, so clients can tell overload from wrong credentials;
+ * throttled logins likewise get a 429.
+ */
+public class LoginFailureHandler extends SimpleUrlAuthenticationFailureHandler {
+
+    private final long retryAfterSeconds;
+
+    public LoginFailureHandler(String failureUrl, long retryAfterSeconds) {
+        super(failureUrl);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response,
+                                        AuthenticationException exception) throws IOException, ServletException {
+        if (exception instanceof LoginThrottledException throttled) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(throttled.getRetryAfterSeconds()));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Too many failed logins, try again later");
+            return;
+        }
+        if (exception instanceof PasswordHashingRejectedException) {
+            // Not sendError: the error page dispatch would go through the security filters again
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Too many concurrent logins, try again shortly");
+            return;
+        }
+        super.onAuthenticationFailure(request, response, exception);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.sampleproj.security;
+
+import java.time.Duration;
+
+/**
+ * Counts failed logins per username and per client address over a sliding
+ * window and refuses further attempts once either passes its limit. Both
+ * counters live in fixed-size {@link SlidingWindowCounters} tables, so a
+ * flood of distinct usernames or addresses costs no more memory than a
+ * quiet day. Entries at half their limit or more are protected from
+ * eviction, so the flood cannot reset a count that is close to locking.
+ * A limit of 0 turns that check off.
+ */
+public class LoginThrottle {
+
+    private final SlidingWindowCounters usernames;
+    private final SlidingWindowCounters addresses;
+    private final int maxFailuresPerUser;
+    private final int maxFailuresPerAddress;
+    private final long retryAfterSeconds;
+
+    public LoginThrottle(Duration window, int maxFailuresPerUser, int maxFailuresPerAddress, int capacity) {
+        this(new SlidingWindowCounters(window, capacity, protectedCount(maxFailuresPerUser)),
+            maxFailuresPerAddress > 0 ? new SlidingWindowCounters(window, capacity, protectedCount(maxFailuresPerAddress)) : null,
+            window, maxFailuresPerUser, maxFailuresPerAddress);
+    }
+
+    LoginThrottle(SlidingWindowCounters usernames, SlidingWindowCounters addresses, Duration window,
+                  int maxFailuresPerUser, int maxFailuresPerAddress) {
+        if (maxFailuresPerUser > SlidingWindowCounters.MAX_COUNT || maxFailuresPerAddress > SlidingWindowCounters.MAX_COUNT) {
+            throw new IllegalArgumentException("Failure limits above " + SlidingWindowCounters.MAX_COUNT + " are not supported");
+        }
+        this.usernames = usernames;
+        this.addresses = addresses;
+        this.maxFailuresPerUser = maxFailuresPerUser;
+        this.maxFailuresPerAddress = maxFailuresPerAddress;
+        this.retryAfterSeconds = Math.max(1, window.toSeconds());
+    }
+
+    /**
+     * Counts the attempt against the username and the address before the
+     * credentials are checked, so concurrent guesses cannot all pass the
+     * limit before any of them is counted. An attempt that turns out not to
+     * be a failure is given back with {@link #refund} or
+     * {@link #loginSucceeded}.
+     *
+     * @throws LoginThrottledException if the username or the address was
+     *                                 already at its limit; the attempt is
+     *                                 then not counted
+     * @param remoteAddress client address, or {@code null} if unknown
+     */
+    public void reserve(String username, String remoteAddress) {
+        boolean countAddress = addresses != null && remoteAddress != null;
+        int userCount = usernames.increment(username);
+        int addressCount = countAddress ? addresses.increment(remoteAddress) : 0;
+        if (maxFailuresPerUser > 0 && userCount > maxFailuresPerUser) {
+            refund(username, remoteAddress);
+            throw new LoginThrottledException("Too many failed logins for this user", retryAfterSeconds);
+        }
+        if (countAddress && addressCount > maxFailuresPerAddress) {
+            refund(username, remoteAddress);
+            throw new LoginThrottledException("Too many failed logins from this address", retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Gives back an attempt counted by {@link #reserve} that did not fail
+     * on its credentials.
+     */
+    public void refund(String username, String remoteAddress) {
+        usernames.decrement(username);
+        if (addresses != null && remoteAddress != null) {
+            addresses.decrement(remoteAddress);
+        }
+    }
+
+    /**
+     * Clears the user's failures and gives back the attempt's count on the
+     * address; earlier failures from the address stay, so one valid account
+     * does not unlock guessing at others.
+     */
+    public void loginSucceeded(String username, String remoteAddress) {
+        usernames.reset(username);
+        if (addresses != null && remoteAddress != null) {
+            addresses.decrement(remoteAddress);
+        }
+    }
+
+    private static int protectedCount(int maxFailures) {
+        return Math.max(1, (maxFailures + 1) / 2);
+    }
+}
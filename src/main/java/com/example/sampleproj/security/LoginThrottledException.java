@@ -0,0 +1,24 @@
+package com.example.sampleproj.security;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Thrown before any credential check when a username or client address has
+ * had too many failed logins recently; answered with 429 and
+ * {@code Retry-After}.
+ */
+public class LoginThrottledException extends AuthenticationException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.sampleproj.security;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+/**
+ * Thrown when the password hashing executor is saturated. It extends
+ * {@link InternalAuthenticationServiceException} so the provider manager
+ * stops at once instead of trying the next provider, and the login failure
+ * handler can answer with 503 rather than "bad credentials".
+ */
+public class PasswordHashingRejectedException extends InternalAuthenticationServiceException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.sampleproj.security;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.ldap.NamingException;
+import org.springframework.ldap.ServiceUnavailableException;
+import org.springframework.ldap.core.ContextSource;
+import org.springframework.ldap.pool2.factory.PoolConfig;
+import org.springframework.ldap.pool2.factory.PooledContextSource;
+import org.springframework.ldap.pool2.validation.DefaultDirContextValidator;
+import org.springframework.security.ldap.DefaultSpringSecurityContextSource;
+
+import javax.naming.directory.DirContext;
+import java.util.function.Supplier;
+
+/**
+ * LDAP context source whose manager connections, used for user and group
+ * searches and by {@code LdapTemplate}, come from a pool instead of being
+ * opened, bound and closed for every operation. Pooled connections are
+ * validated before they are handed out, and idle ones are evicted.
+ * <p>
+ * Binding as the user who logs in still opens a connection of its own:
+ * a connection bound to user credentials must never be reused by anyone
+ * else.
+ */
+public class PooledLdapContextSource extends DefaultSpringSecurityContextSource implements DisposableBean {
+
+    private final PooledContextSource pool;
+
+    public PooledLdapContextSource(String providerUrl, PoolConfig poolConfig) {
+        super(providerUrl);
+        // JNDI's built-in pool can neither validate nor evict; the pool below replaces it
+        setPooled(false);
+        this.pool = new PooledContextSource(poolConfig);
+        this.pool.setDirContextValidator(new DefaultDirContextValidator());
+        this.pool.setContextSource(new ManagerContexts());
+    }
+
+    @Override
+    public DirContext getReadOnlyContext() {
+        return borrow(pool::getReadOnlyContext);
+    }
+
+    @Override
+    public DirContext getReadWriteContext() {
+        return borrow(pool::getReadWriteContext);
+    }
+
+    public int getNumActive() {
+        return pool.getNumActive();
+    }
+
+    public int getNumIdle() {
+        return pool.getNumIdle();
+    }
+
+    public int getNumWaiters() {
+        return pool.getNumWaiters();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        pool.destroy();
+    }
+
+    // Throw what an unpooled source throws, so LDAP login still treats an outage as a failed login
+    private static DirContext borrow(Supplier<DirContext> borrow) {
+        try {
+            return borrow.get();
+        } catch (DataAccessResourceFailureException e) {
+            if (e.getCause() instanceof NamingException cause) {
+                throw cause;
+            }
+            javax.naming.ServiceUnavailableException unavailable = new javax.naming.ServiceUnavailableException(e.getMessage());
+            unavailable.setRootCause(e);
+            throw new ServiceUnavailableException(unavailable);
+        }
+    }
+
+    private DirContext newReadOnlyContext() {
+        return super.getReadOnlyContext();
+    }
+
+    private DirContext newReadWriteContext() {
+        return super.getReadWriteContext();
+    }
+
+    // What the pool creates its connections from: fresh, unpooled manager contexts
+    private class ManagerContexts implements ContextSource {
+
+        @Override
+        public DirContext getReadOnlyContext() {
+            return newReadOnlyContext();
+        }
+
+        @Override
+        public DirContext getReadWriteContext() {
+            return newReadWriteContext();
+        }
+
+        @Override
+        public DirContext getContext(String principal, String credentials) {
+            return PooledLdapContextSource.this.getContext(principal, credentials);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.sampleproj.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Sends each username/password login to the one realm that owns the
+ * username, instead of letting every provider in turn fail with an
+ * exception until one accepts it.
+ * <p>
+ * A username known to the local realm (a set lookup) goes to the local
+ * provider. Any other username goes to the directory, or, when a directory
+ * username pattern is configured (for example a domain suffix such as
+ * {@code .+@corp\.example\.com}), only usernames matching it do and the rest
+ * are rejected without contacting anything. Only a name that is both known
+ * locally and matches the directory pattern is ambiguous: it is tried
+ * locally first and falls through to the directory on bad credentials.
+ */
+public class RealmRoutingAuthenticationProvider implements AuthenticationProvider {
+
+    private final Predicate<String> localUsers;
+    private final AuthenticationProvider local;
+    private final Pattern directoryUsernames;
+    private final AuthenticationProvider directory;
+
+    /**
+     * @param directoryUsernames usernames owned by the directory, or
+     *                           {@code null} for every name not known locally
+     */
+    public RealmRoutingAuthenticationProvider(Predicate<String> localUsers, AuthenticationProvider local,
+                                              Pattern directoryUsernames, AuthenticationProvider directory) {
+        this.localUsers = localUsers;
+        this.local = local;
+        this.directoryUsernames = directoryUsernames;
+        this.directory = directory;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        boolean isLocal = localUsers.test(username);
+        boolean isDirectory = directoryUsernames == null ? !isLocal : directoryUsernames.matcher(username).matches();
+
+        if (isLocal && isDirectory) {
+            try {
+                return local.authenticate(authentication);
+            } catch (BadCredentialsException e) {
+                return directory.authenticate(authentication);
+            }
+        }
+        if (isLocal) {
+            return local.authenticate(authentication);
+        }
+        if (isDirectory) {
+            return directory.authenticate(authentication);
+        }
+        throw new BadCredentialsException("Bad credentials");
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+}
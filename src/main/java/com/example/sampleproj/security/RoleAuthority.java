@@ -0,0 +1,46 @@
+package com.example.sampleproj.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * A role granted at login by {@link RoleBits#getReachableGrantedAuthorities}.
+ * Besides its own name, every role authority of one login carries that
+ * login's complete role mask (hierarchy already applied), so a role check
+ * reads the mask from the first authority instead of walking them all.
+ */
+public final class RoleAuthority implements GrantedAuthority {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String authority;
+    private final long roleMask;
+
+    RoleAuthority(String authority, long roleMask) {
+        this.authority = authority;
+        this.roleMask = roleMask;
+    }
+
+    @Override
+    public String getAuthority() {
+        return authority;
+    }
+
+    public long getRoleMask() {
+        return roleMask;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof RoleAuthority role && authority.equals(role.authority);
+    }
+
+    @Override
+    public int hashCode() {
+        return authority.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return authority;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.sampleproj.security;
+
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Assigns each configured role one bit of a {@code long}, so a set of roles
+ * is a mask and "has any of these roles" is a single AND. Roles are given
+ * without the {@code ROLE_} prefix; authorities outside the configured
+ * roles have no bit and never contribute to a mask.
+ * <p>
+ * An optional hierarchy ({@code ADMIN > MODERATOR > VIEWER}, one chain per
+ * line or separated by {@code ;}) is closed over when the instance is
+ * built, so expanding a user's roles is one OR per role held. As a
+ * {@link RoleHierarchy} it turns a login's authorities into
+ * {@link RoleAuthority} instances carrying the expanded mask, which
+ * {@link #maskOf} then reads without walking the collection.
+ */
+public final class RoleBits implements RoleHierarchy {
+
+    public static final String ROLE_PREFIX = "ROLE_";
+
+    private final List<String> roles;
+    private final String[] authorities;
+    private final Map<String, Long> bitsByAuthority;
+    private final long[] reachable;
+
+    private RoleBits(List<String> roles, String hierarchy) {
+        if (roles.size() > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " roles are supported, got " + roles.size());
+        }
+        this.roles = List.copyOf(roles);
+        this.authorities = new String[roles.size()];
+        this.bitsByAuthority = new HashMap<>();
+        this.reachable = new long[roles.size()];
+        for (int i = 0; i < roles.size(); i++) {
+            authorities[i] = ROLE_PREFIX + roles.get(i);
+            reachable[i] = 1L << i;
+            if (bitsByAuthority.put(authorities[i], 1L << i) != null) {
+                throw new IllegalArgumentException("Duplicate role " + roles.get(i));
+            }
+        }
+        parseHierarchy(hierarchy);
+    }
+
+    public static RoleBits of(String... roles) {
+        return new RoleBits(List.of(roles), "");
+    }
+
+    public static RoleBits of(List<String> roles) {
+        return new RoleBits(roles, "");
+    }
+
+    /**
+     * @throws IllegalArgumentException if the hierarchy names a role that is
+     *         not configured or contains a cycle
+     */
+    public static RoleBits of(List<String> roles, String hierarchy) {
+        return new RoleBits(roles, hierarchy);
+    }
+
+    private void parseHierarchy(String hierarchy) {
+        for (String chain : hierarchy.split("[;\\n]")) {
+            if (chain.isBlank()) {
+                continue;
+            }
+            String[] steps = chain.split(">");
+            for (int i = 0; i + 1 < steps.length; i++) {
+                reachable[bitIndex(steps[i].trim())] |= maskOfRoles(steps[i + 1].trim());
+            }
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < reachable.length; i++) {
+                long closed = expand(reachable[i]);
+                if (closed != reachable[i]) {
+                    reachable[i] = closed;
+                    changed = true;
+                }
+            }
+        }
+        for (int i = 0; i < reachable.length; i++) {
+            for (long lower = reachable[i] & ~(1L << i); lower != 0; lower &= lower - 1) {
+                if ((reachable[Long.numberOfTrailingZeros(lower)] & (1L << i)) != 0) {
+                    throw new IllegalArgumentException("Cycle in role hierarchy through " + roles.get(i));
+                }
+            }
+        }
+    }
+
+    private int bitIndex(String role) {
+        return Long.numberOfTrailingZeros(maskOfRoles(role));
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public boolean hasAuthority(String authority) {
+        return bitsByAuthority.containsKey(authority);
+    }
+
+    /**
+     * Mask of the given roles; {@code ROLE_} is added where missing.
+     *
+     * @throws IllegalArgumentException if a role is not configured
+     */
+    public long maskOfRoles(String... roles) {
+        long mask = 0;
+        for (String role : roles) {
+            Long bit = bitsByAuthority.get(role.startsWith(ROLE_PREFIX) ? role : ROLE_PREFIX + role);
+            if (bit == null) {
+                throw new IllegalArgumentException("Unknown role " + role + ", expected one of " + this.roles);
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    /**
+     * The roles a user holding {@code mask} has once the hierarchy is applied.
+     */
+    public long expand(long mask) {
+        long expanded = mask;
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            expanded |= reachable[Long.numberOfTrailingZeros(remaining)];
+        }
+        return expanded;
+    }
+
+    /**
+     * The user's role mask, hierarchy applied. Authorities mapped at login
+     * carry it on their first element; anything else (test users, other
+     * authentication paths) is folded and expanded here, one map lookup per
+     * authority and no allocation.
+     */
+    public long maskOf(Collection<? extends GrantedAuthority> authorities) {
+        long mask = 0;
+        if (authorities instanceof List<? extends GrantedAuthority> list && list instanceof RandomAccess) {
+            int size = list.size();
+            if (size > 0 && list.get(0) instanceof RoleAuthority role) {
+                return role.getRoleMask();
+            }
+            // Authentication tokens hold an unmodifiable ArrayList; skip the iterator
+            for (int i = 0; i < size; i++) {
+                mask |= bitOf(list.get(i));
+            }
+            return expand(mask);
+        }
+        for (GrantedAuthority authority : authorities) {
+            mask |= bitOf(authority);
+        }
+        return expand(mask);
+    }
+
+    private long bitOf(GrantedAuthority authority) {
+        Long bit = bitsByAuthority.get(authority.getAuthority());
+        return bit != null ? bit : 0;
+    }
+
+    /**
+     * Every reachable role as a {@link RoleAuthority}, first, followed by
+     * the authorities that are not configured roles, unchanged.
+     */
+    @Override
+    public Collection<? extends GrantedAuthority> getReachableGrantedAuthorities(
+            Collection<? extends GrantedAuthority> authorities) {
+        if (authorities == null || authorities.isEmpty()) {
+            return List.of();
+        }
+        long mask = maskOf(authorities);
+        List<GrantedAuthority> reachableAuthorities = new ArrayList<>(Long.bitCount(mask) + authorities.size());
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            reachableAuthorities.add(new RoleAuthority(this.authorities[Long.numberOfTrailingZeros(remaining)], mask));
+        }
+        for (GrantedAuthority authority : authorities) {
+            if (!bitsByAuthority.containsKey(authority.getAuthority())) {
+                reachableAuthorities.add(authority);
+            }
+        }
+        return reachableAuthorities;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.sampleproj.security;
+
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * Grants access when the user holds any of a fixed set of roles. The set is
+ * turned into a {@link RoleBits} mask when the manager is built, so a check
+ * is a bit test against the user's mask instead of comparing authority
+ * names, and both decisions are shared instances.
+ */
+public final class RoleMaskAuthorizationManager<T> implements AuthorizationManager<T> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final RoleBits roleBits;
+    private final long required;
+
+    private RoleMaskAuthorizationManager(RoleBits roleBits, long required) {
+        this.roleBits = roleBits;
+        this.required = required;
+    }
+
+    public static <T> RoleMaskAuthorizationManager<T> hasAnyRole(RoleBits roleBits, String... roles) {
+        return new RoleMaskAuthorizationManager<>(roleBits, roleBits.maskOfRoles(roles));
+    }
+
+    static <T> RoleMaskAuthorizationManager<T> ofMask(RoleBits roleBits, long required) {
+        return new RoleMaskAuthorizationManager<>(roleBits, required);
+    }
+
+    public long getRequired() {
+        return required;
+    }
+
+    @Override
+    public AuthorizationDecision authorize(Supplier<Authentication> authentication, T object) {
+        Authentication user = authentication.get();
+        return user != null && (roleBits.maskOf(user.getAuthorities()) & required) != 0 ? GRANTED : DENIED;
+    }
+
+    @Deprecated
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+        return authorize(authentication, object);
+    }
+
+    @Override
+    public String toString() {
+        return "RoleMaskAuthorizationManager[required=0x" + Long.toHexString(required) + "]";
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.sampleproj.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
+import org.springframework.security.core.authority.mapping.NullAuthoritiesMapper;
+
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Issues and verifies compact HMAC-SHA256 signed JWTs that carry a user's
+ * name and authorities. Verification needs only the shared secret, so any
+ * node holding it can authenticate a request without a session or a call
+ * to another service. Tokens cannot be revoked before they expire; keep
+ * the TTL short.
+ */
+public class SignedTokenService {
+
+    public static final String AUTHORITIES_CLAIM = "roles";
+
+    private final JWSSigner signer;
+    private final JWSVerifier verifier;
+    private final Duration ttl;
+    private final Clock clock;
+    private GrantedAuthoritiesMapper authoritiesMapper = new NullAuthoritiesMapper();
+
+    public SignedTokenService(byte[] secret, Duration ttl) {
+        this(secret, ttl, Clock.systemUTC());
+    }
+
+    SignedTokenService(byte[] secret, Duration ttl, Clock clock) {
+        try {
+            this.signer = new MACSigner(secret);
+            this.verifier = new MACVerifier(secret);
+        } catch (JOSEException e) {
+            throw new IllegalArgumentException("Token secret must be at least 32 bytes", e);
+        }
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    public String issue(Authentication authentication) {
+        Instant now = clock.instant();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .subject(authentication.getName())
+            .issueTime(Date.from(now))
+            .expirationTime(Date.from(now.plus(ttl)))
+            .claim(AUTHORITIES_CLAIM, authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList())
+            .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims);
+        try {
+            jwt.sign(signer);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not sign token", e);
+        }
+        return jwt.serialize();
+    }
+
+    /**
+     * Returns the authenticated user the token was issued for, or throws
+     * {@link BadCredentialsException} if it is malformed, not signed with
+     * this service's secret, or expired.
+     */
+    public Authentication verify(String token) {
+        JWTClaimsSet claims;
+        try {
+            SignedJWT jwt = SignedJWT.parse(token);
+            if (!JWSAlgorithm.HS256.equals(jwt.getHeader().getAlgorithm()) || !jwt.verify(verifier)) {
+                throw new BadCredentialsException("Invalid token");
+            }
+            claims = jwt.getJWTClaimsSet();
+        } catch (ParseException | JOSEException e) {
+            throw new BadCredentialsException("Invalid token", e);
+        }
+
+        Date expiresAt = claims.getExpirationTime();
+        if (expiresAt == null || !clock.instant().isBefore(expiresAt.toInstant())) {
+            throw new BadCredentialsException("Token expired");
+        }
+        List<String> authorities;
+        try {
+            authorities = claims.getStringListClaim(AUTHORITIES_CLAIM);
+        } catch (ParseException e) {
+            throw new BadCredentialsException("Invalid token", e);
+        }
+        List<GrantedAuthority> granted = authorities == null
+            ? List.of()
+            : authorities.stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList();
+        return UsernamePasswordAuthenticationToken.authenticated(claims.getSubject(), null,
+            authoritiesMapper.mapAuthorities(granted));
+    }
+
+    /**
+     * Applied to the authorities restored from a token, as the
+     * authentication providers apply theirs at login.
+     */
+    public void setAuthoritiesMapper(GrantedAuthoritiesMapper authoritiesMapper) {
+        this.authoritiesMapper = authoritiesMapper;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+}
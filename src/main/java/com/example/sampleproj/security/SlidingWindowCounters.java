@@ -0,0 +1,188 @@
+package com.example.sampleproj.security;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate per-key event counts over a sliding window, in a fixed-size
+ * table that never grows or allocates.
+ * <p>
+ * Each key hashes (with a random per-instance seed, and ignoring case) to
+ * two candidate slots. A slot is one {@code long} holding a key
+ * fingerprint, the window number, and the counts of the current and
+ * previous window; it is updated with a CAS, so there are no locks. The
+ * count is the current window's plus the previous window's weighted by how
+ * much of it still overlaps the sliding window. A new key takes whichever
+ * candidate slot has the lower count, which evicts idle and expired keys
+ * first. A slot whose count has reached {@code protectedCount} is never
+ * taken over, so spraying other keys cannot wipe the count of a key under
+ * attack; if both candidates of a new key are protected, its events are not
+ * counted until one of them fades out of the window. Keys whose
+ * fingerprints collide share a count, which can only make the count higher.
+ */
+public class SlidingWindowCounters {
+
+    public static final int MAX_COUNT = (1 << 12) - 1;
+    private static final int MAX_CAPACITY = 1 << 20;
+
+    private static final int COUNT_BITS = 12;
+    private static final long COUNT_MASK = MAX_COUNT;
+    private static final long WINDOW_MASK = (1L << 20) - 1;
+    private static final int WINDOW_SHIFT = 2 * COUNT_BITS;
+    private static final int FINGERPRINT_SHIFT = 44;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final int protectedCount;
+    private final long windowMillis;
+    private final long seed;
+    private final LongSupplier clock;
+
+    /**
+     * @param capacity       number of slots, rounded up to a power of two (at
+     *                       most 2<sup>20</sup>); each takes 8 bytes
+     * @param protectedCount count from which a key keeps its slot until it
+     *                       fades out of the window
+     */
+    public SlidingWindowCounters(Duration window, int capacity, int protectedCount) {
+        this(window, capacity, protectedCount, new SecureRandom().nextLong(), System::currentTimeMillis);
+    }
+
+    SlidingWindowCounters(Duration window, int capacity, int protectedCount, long seed, LongSupplier clock) {
+        int size = Integer.highestOneBit(Math.max(2, Math.min(capacity, MAX_CAPACITY) - 1)) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.protectedCount = Math.max(1, protectedCount);
+        this.windowMillis = window.toMillis();
+        this.seed = seed;
+        this.clock = clock;
+    }
+
+    /**
+     * Counts one event for the key and returns its count including it, or 0
+     * if both of the key's slots are held by protected keys.
+     */
+    public int increment(CharSequence key) {
+        long hash = hash(key);
+        long fingerprint = fingerprint(hash);
+        int first = (int) hash & mask;
+        int second = (int) (hash >>> 24) & mask;
+        while (true) {
+            long now = clock.getAsLong();
+            long window = now / windowMillis;
+            int index = matching(first, second, fingerprint);
+            long slot;
+            if (index >= 0) {
+                slot = slots.get(index);
+            } else {
+                long firstSlot = slots.get(first);
+                long secondSlot = slots.get(second);
+                int firstCount = count(firstSlot, window, now);
+                int secondCount = count(secondSlot, window, now);
+                if (Math.min(firstCount, secondCount) >= protectedCount) {
+                    return 0;
+                }
+                index = firstCount <= secondCount ? first : second;
+                slot = firstCount <= secondCount ? firstSlot : secondSlot;
+            }
+            long previous;
+            long current;
+            if (slot >>> FINGERPRINT_SHIFT == fingerprint) {
+                long age = (window - (slot >>> WINDOW_SHIFT)) & WINDOW_MASK;
+                previous = age == 0 ? (slot >>> COUNT_BITS) & COUNT_MASK : age == 1 ? slot & COUNT_MASK : 0;
+                current = age == 0 ? Math.min(slot & COUNT_MASK, MAX_COUNT - 1) + 1 : 1;
+            } else {
+                previous = 0;
+                current = 1;
+            }
+            long updated = fingerprint << FINGERPRINT_SHIFT | (window & WINDOW_MASK) << WINDOW_SHIFT
+                | previous << COUNT_BITS | current;
+            if (slots.compareAndSet(index, slot, updated)) {
+                return count(updated, window, now);
+            }
+        }
+    }
+
+    public int count(CharSequence key) {
+        long hash = hash(key);
+        int index = matching((int) hash & mask, (int) (hash >>> 24) & mask, fingerprint(hash));
+        if (index < 0) {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        return count(slots.get(index), now / windowMillis, now);
+    }
+
+    /**
+     * Takes back one event counted by {@link #increment}, if the key still
+     * holds its slot.
+     */
+    public void decrement(CharSequence key) {
+        long hash = hash(key);
+        long fingerprint = fingerprint(hash);
+        int index;
+        while ((index = matching((int) hash & mask, (int) (hash >>> 24) & mask, fingerprint)) >= 0) {
+            long slot = slots.get(index);
+            if (slot >>> FINGERPRINT_SHIFT != fingerprint) {
+                continue;
+            }
+            if ((slot & COUNT_MASK) == 0 || slots.compareAndSet(index, slot, slot - 1)) {
+                return;
+            }
+        }
+    }
+
+    public void reset(CharSequence key) {
+        long hash = hash(key);
+        long fingerprint = fingerprint(hash);
+        int index;
+        while ((index = matching((int) hash & mask, (int) (hash >>> 24) & mask, fingerprint)) >= 0) {
+            long slot = slots.get(index);
+            if (slot >>> FINGERPRINT_SHIFT == fingerprint && slots.compareAndSet(index, slot, 0)) {
+                return;
+            }
+        }
+    }
+
+    private int matching(int first, int second, long fingerprint) {
+        if (slots.get(first) >>> FINGERPRINT_SHIFT == fingerprint) {
+            return first;
+        }
+        return slots.get(second) >>> FINGERPRINT_SHIFT == fingerprint ? second : -1;
+    }
+
+    private int count(long slot, long window, long now) {
+        if (slot == 0) {
+            return 0;
+        }
+        long age = (window - (slot >>> WINDOW_SHIFT)) & WINDOW_MASK;
+        if (age == 0) {
+            long previous = (slot >>> COUNT_BITS) & COUNT_MASK;
+            long overlap = windowMillis - now % windowMillis;
+            return (int) ((slot & COUNT_MASK) + previous * overlap / windowMillis);
+        }
+        if (age == 1) {
+            return (int) ((slot & COUNT_MASK) * (windowMillis - now % windowMillis) / windowMillis);
+        }
+        return 0;
+    }
+
+    // Never 0, which marks an empty slot
+    private static long fingerprint(long hash) {
+        return hash >>> FINGERPRINT_SHIFT | 1;
+    }
+
+    private long hash(CharSequence key) {
+        long hash = seed ^ 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ Character.toLowerCase(key.charAt(i))) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ hash >>> 33;
+    }
+}
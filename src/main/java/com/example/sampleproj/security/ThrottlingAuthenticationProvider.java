@@ -0,0 +1,57 @@
+package com.example.sampleproj.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * Reserves an attempt with the {@link LoginThrottle} before the wrapped
+ * provider, so a throttled login is refused without hashing a password or
+ * binding to the directory, and a burst of concurrent guesses cannot all
+ * slip in under the limit. Wrong credentials keep the attempt counted
+ * against the username and the client address; a successful login or any
+ * other failure (such as an overloaded hashing pool) gives it back.
+ */
+public class ThrottlingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final LoginThrottle throttle;
+
+    public ThrottlingAuthenticationProvider(AuthenticationProvider delegate, LoginThrottle throttle) {
+        this.delegate = delegate;
+        this.throttle = throttle;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        String remoteAddress = authentication.getDetails() instanceof WebAuthenticationDetails details
+            ? details.getRemoteAddress()
+            : null;
+        throttle.reserve(username, remoteAddress);
+        Authentication result;
+        try {
+            result = delegate.authenticate(authentication);
+        } catch (BadCredentialsException | UsernameNotFoundException e) {
+            // The reserved attempt stays counted as the failure
+            throw e;
+        } catch (RuntimeException | Error e) {
+            throttle.refund(username, remoteAddress);
+            throw e;
+        }
+        if (result != null) {
+            throttle.loginSucceeded(username, remoteAddress);
+        } else {
+            throttle.refund(username, remoteAddress);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
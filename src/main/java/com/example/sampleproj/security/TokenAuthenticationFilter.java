@@ -0,0 +1,58 @@
+package com.example.sampleproj.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates requests carrying {@code Authorization: Bearer <token>} by
+ * verifying the token locally with {@link SignedTokenService}. The
+ * resulting security context lives only for the request (and its error and
+ * async dispatches); nothing is read from or written to the HTTP session.
+ * Requests without a bearer token pass through unauthenticated.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final SignedTokenService tokenService;
+    private final AuthenticationEntryPoint entryPoint;
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
+    public TokenAuthenticationFilter(SignedTokenService tokenService, AuthenticationEntryPoint entryPoint) {
+        this.tokenService = tokenService;
+        this.entryPoint = entryPoint;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(tokenService.verify(header.substring(BEARER_PREFIX.length()).trim()));
+            SecurityContextHolder.setContext(context);
+            securityContextRepository.saveContext(context, request, response);
+        } catch (AuthenticationException e) {
+            SecurityContextHolder.clearContext();
+            entryPoint.commence(request, response, e);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
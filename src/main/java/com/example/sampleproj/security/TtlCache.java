@@ -0,0 +1,71 @@
+package com.example.sampleproj.security;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Small bounded map whose entries expire a fixed time after they were put.
+ * Expired entries are dropped on read and swept when the cache fills up; if
+ * it is still full after a sweep, new entries are simply not cached.
+ */
+public class TtlCache<K, V> {
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+
+    public TtlCache(Duration ttl, int maxEntries) {
+        this(ttl, maxEntries, System::nanoTime);
+    }
+
+    TtlCache(Duration ttl, int maxEntries, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (nanoClock.getAsLong() - entry.expiresAt >= 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            sweep();
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(key, new Entry<>(value, nanoClock.getAsLong() + ttlNanos));
+    }
+
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void sweep() {
+        long now = nanoClock.getAsLong();
+        entries.values().removeIf(entry -> now - entry.expiresAt >= 0);
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
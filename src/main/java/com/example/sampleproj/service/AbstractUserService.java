@@ -0,0 +1,41 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.User;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change listener plumbing and the store-wide version shared by the
+ * {@link UserService} stores. Every published change bumps the version.
+ */
+public abstract class AbstractUserService implements UserService {
+
+    private final List<UserChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong storeVersion = new AtomicLong(ThreadLocalRandom.current().nextLong() >>> 1);
+
+    @Override
+    public void addChangeListener(UserChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public long getStoreVersion() {
+        return storeVersion.get();
+    }
+
+    // Stores call this after the change is visible to readers, so a reader
+    // that sees the new version also sees the new data
+    protected void publish(UserChangeEvent.Type type, User user) {
+        storeVersion.incrementAndGet();
+        if (listeners.isEmpty()) {
+            return;
+        }
+        UserChangeEvent event = new UserChangeEvent(type, user);
+        for (UserChangeListener listener : listeners) {
+            listener.onUserChange(event);
+        }
+    }
+}
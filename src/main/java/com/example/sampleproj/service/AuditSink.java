@@ -0,0 +1,19 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.AuthAuditEvent;
+
+import java.util.List;
+
+/**
+ * Destination for authentication audit events. Called from the audit
+ * thread only, one batch at a time, so implementations need not be thread
+ * safe and may block.
+ */
+public interface AuditSink extends AutoCloseable {
+
+    void write(List<AuthAuditEvent> events) throws Exception;
+
+    @Override
+    default void close() throws Exception {
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.AuthAuditEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records login attempts without doing I/O on the request thread.
+ * <p>
+ * {@link #record} claims a slot in a preallocated ring with one CAS and
+ * fills it in place, so recording allocates nothing and never waits; when
+ * the ring is full the event is dropped and counted instead. A single
+ * daemon thread drains published slots in batches of up to
+ * {@code batchSize} and hands each batch to the {@link AuditSink}.
+ */
+public class AuthenticationAuditLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthenticationAuditLog.class);
+
+    private final AuditSink sink;
+    private final Slot[] slots;
+    private final int mask;
+    private final int batchSize;
+    private final long idleWaitNanos;
+
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long drained;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+
+    private volatile boolean running = true;
+    private final Thread drainer;
+
+    /**
+     * @param capacity ring size, rounded up to a power of two
+     */
+    public AuthenticationAuditLog(AuditSink sink, int capacity, int batchSize, Duration idleWait) {
+        this.sink = sink;
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.batchSize = batchSize;
+        this.idleWaitNanos = idleWait.toNanos();
+        this.drainer = new Thread(this::drainLoop, "auth-audit");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    /**
+     * Queues one event; returns {@code false} if the ring was full and the
+     * event was dropped.
+     */
+    public boolean record(AuthAuditEvent.Outcome outcome, String provider, String username,
+                          String remoteAddress, String reason, long latencyNanos) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - drained >= slots.length) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.timestamp = System.currentTimeMillis();
+        slot.outcome = outcome;
+        slot.provider = provider;
+        slot.username = username;
+        slot.remoteAddress = remoteAddress;
+        slot.reason = reason;
+        slot.latencyNanos = latencyNanos;
+        slot.published = sequence;
+        return true;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getFailedWrites() {
+        return failedWrites.get();
+    }
+
+    private void drainLoop() {
+        List<AuthAuditEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            drainTo(batch);
+            if (batch.isEmpty()) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(this, idleWaitNanos);
+                continue;
+            }
+            try {
+                sink.write(batch);
+            } catch (Exception e) {
+                failedWrites.addAndGet(batch.size());
+                log.warn("Could not write {} audit events", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    private void drainTo(List<AuthAuditEvent> batch) {
+        long next = drained;
+        while (batch.size() < batchSize) {
+            Slot slot = slots[(int) (next & mask)];
+            if (slot.published != next) {
+                break;
+            }
+            batch.add(new AuthAuditEvent(Instant.ofEpochMilli(slot.timestamp), slot.outcome, slot.provider,
+                slot.username, slot.remoteAddress, slot.reason, TimeUnit.NANOSECONDS.toMicros(slot.latencyNanos)));
+            slot.provider = null;
+            slot.username = null;
+            slot.remoteAddress = null;
+            slot.reason = null;
+            next++;
+        }
+        drained = next;
+    }
+
+    /**
+     * Stops the drain thread after it has written everything recorded so
+     * far, then closes the sink.
+     */
+    @Override
+    public void close() throws Exception {
+        running = false;
+        LockSupport.unpark(drainer);
+        drainer.join(TimeUnit.SECONDS.toMillis(5));
+        sink.close();
+    }
+
+    private static final class Slot {
+        private volatile long published = -1;
+        private long timestamp;
+        private AuthAuditEvent.Outcome outcome;
+        private String provider;
+        private String username;
+        private String remoteAddress;
+        private String reason;
+        private long latencyNanos;
+    }
+}
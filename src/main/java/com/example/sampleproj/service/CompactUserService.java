@@ -0,0 +1,534 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Memory-efficient user store for very large user counts. Instead of one
+ * {@link User} object (plus a boxed id, two strings and map nodes) per user
+ * it keeps:
+ * <ul>
+ *   <li>ids, versions and record addresses in parallel primitive arrays, ordered by id
+ *       so id lookups are a binary search and pages are a contiguous scan;</li>
+ *   <li>names and emails as packed UTF-8 records in large chunks, optionally
+ *       allocated off-heap;</li>
+ *   <li>an open-addressing email index of slot numbers.</li>
+ * </ul>
+ * {@link User} objects are only built when a caller reads them. Writes take a
+ * single write lock, and change listeners run under it so they see writes in
+ * order; reads share a read lock.
+ * <p>
+ * Updates append a new record and deletes leave a dead slot. Once garbage
+ * passes {@code maxGarbageRatio} of the record bytes, the next write copies
+ * the live records into fresh chunks and squeezes out deleted slots, under
+ * the write lock, so memory follows the live data under update churn.
+ */
+@Service
+@ConditionalOnProperty(name = "app.users.store", havingValue = "compact")
+public class CompactUserService extends AbstractUserService {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int WALK_BATCH_SIZE = 512;
+    private static final long DELETED = -1L;
+    private static final int EMPTY_ENTRY = 0;
+    private static final int REMOVED_ENTRY = -1;
+    static final double DEFAULT_MAX_GARBAGE_RATIO = 0.5;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int chunkSize;
+    private final boolean offHeap;
+    private final double maxGarbageRatio;
+
+    // Packed records: [name length][name bytes][email length][email bytes]
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private int chunkOffset;
+    private long garbageBytes;
+
+    // Slot arrays; a record address is (chunk index << 32 | offset in chunk)
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] addresses = new long[INITIAL_CAPACITY];
+    private int[] versions = new int[INITIAL_CAPACITY];
+    private int slotCount;
+    private int liveCount;
+    private long nextId = 1;
+
+    // Email index: slot + 1, or EMPTY_ENTRY / REMOVED_ENTRY
+    private int[] emailTable = new int[INITIAL_CAPACITY * 2];
+    private int emailTableOccupied;
+
+    public CompactUserService(int chunkSize, boolean offHeap) {
+        this(chunkSize, offHeap, DEFAULT_MAX_GARBAGE_RATIO);
+    }
+
+    @Autowired
+    public CompactUserService(@Value("${app.users.compact.chunk-size:16777216}") int chunkSize,
+                              @Value("${app.users.compact.off-heap:false}") boolean offHeap,
+                              @Value("${app.users.compact.max-garbage-ratio:0.5}") double maxGarbageRatio) {
+        this.chunkSize = chunkSize;
+        this.offHeap = offHeap;
+        this.maxGarbageRatio = maxGarbageRatio;
+        // Initialize with some sample data
+        createUser(new User("John Doe", "john.doe@example.com"));
+        createUser(new User("Jane Smith", "jane.smith@example.com"));
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        List<User> users = new ArrayList<>();
+        forEachUser(users::add);
+        return users;
+    }
+
+    @Override
+    public List<User> getUsersAfter(Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<User> page = new ArrayList<>(Math.min(limit, WALK_BATCH_SIZE));
+            int slot = afterId != null ? firstSlotAfter(afterId) : 0;
+            for (; slot < slotCount && page.size() < limit; slot++) {
+                if (addresses[slot] != DELETED) {
+                    page.add(readUser(slot));
+                }
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEachUser(Consumer<? super User> action) {
+        // Walk in batches so a slow consumer never holds the read lock
+        Long cursor = null;
+        List<User> batch;
+        do {
+            batch = getUsersAfter(cursor, WALK_BATCH_SIZE);
+            batch.forEach(action);
+            if (!batch.isEmpty()) {
+                cursor = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == WALK_BATCH_SIZE);
+    }
+
+    @Override
+    public Optional<User> getUserById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            int slot = findSlot(id);
+            return slot >= 0 ? Optional.of(readUser(slot)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> getUserByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            int slot = findEmailSlot(emailBytes);
+            return slot >= 0 ? Optional.of(readUser(slot)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public User createUser(User user) {
+        lock.writeLock().lock();
+        try {
+            return insert(user);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> createIfEmailAbsent(User user) {
+        lock.writeLock().lock();
+        try {
+            if (findEmailSlot(user.getEmail().getBytes(StandardCharsets.UTF_8)) >= 0) {
+                return Optional.empty();
+            }
+            return Optional.of(insert(user));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Optional<User>> createUsers(List<User> users) {
+        lock.writeLock().lock();
+        try {
+            List<Optional<User>> created = new ArrayList<>(users.size());
+            for (User user : users) {
+                boolean taken = findEmailSlot(user.getEmail().getBytes(StandardCharsets.UTF_8)) >= 0;
+                created.add(taken ? Optional.empty() : Optional.of(insert(user)));
+            }
+            return created;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> updateUser(Long id, User updatedUser, Long expectedVersion) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        byte[] name = updatedUser.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] email = updatedUser.getEmail().getBytes(StandardCharsets.UTF_8);
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(id);
+            if (slot < 0) {
+                return Optional.empty();
+            }
+            if (expectedVersion != null && expectedVersion != versions[slot]) {
+                throw new OptimisticLockingFailureException("User " + id + " has been modified");
+            }
+            int owner = findEmailSlot(email);
+            if (owner >= 0 && owner != slot) {
+                throw emailTaken(updatedUser.getEmail());
+            }
+            // Append first: if the record is rejected, nothing has changed yet
+            long address = appendRecord(name, email);
+            removeEmailEntry(slot);
+            garbageBytes += recordLength(addresses[slot]);
+            addresses[slot] = address;
+            indexEmail(slot, email);
+            versions[slot]++;
+            User user = new User(updatedUser.getName(), updatedUser.getEmail());
+            user.setId(id);
+            user.setVersion((long) versions[slot]);
+            compactIfNeeded();
+            publish(UserChangeEvent.Type.UPDATED, user);
+            return Optional.of(user);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteUser(Long id) {
+        if (id == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(id);
+            if (slot < 0) {
+                return false;
+            }
+            User removed = readUser(slot);
+            removeEmailEntry(slot);
+            garbageBytes += recordLength(addresses[slot]);
+            addresses[slot] = DELETED;
+            liveCount--;
+            compactIfNeeded();
+            publish(UserChangeEvent.Type.DELETED, removed);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long getUserCount() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bytes held by the store: the slot arrays, the email index and every
+     * allocated record chunk (on or off heap).
+     */
+    public long getStorageBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) ids.length * Long.BYTES
+                    + (long) addresses.length * Long.BYTES
+                    + (long) versions.length * Integer.BYTES
+                    + (long) emailTable.length * Integer.BYTES
+                    + (long) chunks.size() * chunkSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bytes of record data left behind by updates and deletes since the last
+     * compaction.
+     */
+    public long getGarbageBytes() {
+        lock.readLock().lock();
+        try {
+            return garbageBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private User insert(User user) {
+        byte[] name = user.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] email = user.getEmail().getBytes(StandardCharsets.UTF_8);
+        if (findEmailSlot(email) >= 0) {
+            throw emailTaken(user.getEmail());
+        }
+        // Append first: if the record is rejected, nothing has changed yet
+        long address = appendRecord(name, email);
+        if (slotCount == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            addresses = Arrays.copyOf(addresses, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+        // Ids are assigned under the write lock, so slots stay sorted by id
+        long id = nextId++;
+        int slot = slotCount++;
+        ids[slot] = id;
+        addresses[slot] = address;
+        versions[slot] = 0;
+        liveCount++;
+        indexEmail(slot, email);
+
+        user.setId(id);
+        user.setVersion(0L);
+        publish(UserChangeEvent.Type.CREATED, user);
+        return user;
+    }
+
+    private static DuplicateKeyException emailTaken(String email) {
+        return new DuplicateKeyException("Email already exists: " + email);
+    }
+
+    private int findSlot(long id) {
+        int slot = Arrays.binarySearch(ids, 0, slotCount, id);
+        return slot >= 0 && addresses[slot] != DELETED ? slot : -1;
+    }
+
+    private int firstSlotAfter(long id) {
+        int slot = Arrays.binarySearch(ids, 0, slotCount, id);
+        return slot >= 0 ? slot + 1 : -slot - 1;
+    }
+
+    private long appendRecord(byte[] name, byte[] email) {
+        long address = reserve(RECORD_HEADER_BYTES + name.length + email.length);
+        ByteBuffer chunk = chunks.get((int) (address >>> 32));
+        int offset = (int) address;
+        chunk.putInt(offset, name.length);
+        chunk.put(offset + 4, name);
+        chunk.putInt(offset + 4 + name.length, email.length);
+        chunk.put(offset + RECORD_HEADER_BYTES + name.length, email);
+        return address;
+    }
+
+    private long reserve(int length) {
+        if (length > chunkSize) {
+            throw new IllegalArgumentException("User record of " + length + " bytes exceeds the chunk size");
+        }
+        if (chunks.isEmpty() || chunkOffset + length > chunkSize) {
+            chunks.add(offHeap ? ByteBuffer.allocateDirect(chunkSize) : ByteBuffer.allocate(chunkSize));
+            chunkOffset = 0;
+        }
+        long address = ((long) (chunks.size() - 1) << 32) | chunkOffset;
+        chunkOffset += length;
+        return address;
+    }
+
+    private int recordLength(long address) {
+        return recordLength(chunks.get((int) (address >>> 32)), (int) address);
+    }
+
+    private static int recordLength(ByteBuffer chunk, int offset) {
+        int nameLength = chunk.getInt(offset);
+        return RECORD_HEADER_BYTES + nameLength + chunk.getInt(offset + 4 + nameLength);
+    }
+
+    private void compactIfNeeded() {
+        long recordBytes = (long) (chunks.size() - 1) * chunkSize + chunkOffset;
+        boolean recordsWasteful = garbageBytes >= chunkSize && garbageBytes > recordBytes * maxGarbageRatio;
+        int deletedSlots = slotCount - liveCount;
+        boolean slotsWasteful = deletedSlots >= INITIAL_CAPACITY && deletedSlots > slotCount * maxGarbageRatio;
+        if (recordsWasteful || slotsWasteful) {
+            compact();
+        }
+    }
+
+    // Copies the live records, in slot order, into fresh chunks and rebuilds
+    // the slot arrays and the email index without the deleted slots
+    private void compact() {
+        List<ByteBuffer> oldChunks = new ArrayList<>(chunks);
+        chunks.clear();
+        chunkOffset = 0;
+        int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, liveCount) - 1) << 1);
+        long[] newIds = new long[capacity];
+        long[] newAddresses = new long[capacity];
+        int[] newVersions = new int[capacity];
+        int kept = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            long address = addresses[slot];
+            if (address == DELETED) {
+                continue;
+            }
+            ByteBuffer from = oldChunks.get((int) (address >>> 32));
+            int length = recordLength(from, (int) address);
+            long copied = reserve(length);
+            chunks.get((int) (copied >>> 32)).put((int) copied, from, (int) address, length);
+            newIds[kept] = ids[slot];
+            newAddresses[kept] = copied;
+            newVersions[kept] = versions[slot];
+            kept++;
+        }
+        ids = newIds;
+        addresses = newAddresses;
+        versions = newVersions;
+        slotCount = kept;
+        garbageBytes = 0;
+
+        emailTable = new int[Integer.highestOneBit(Math.max(INITIAL_CAPACITY, liveCount * 4) - 1) << 1];
+        emailTableOccupied = 0;
+        int mask = emailTable.length - 1;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int i = emailHashOfSlot(slot) & mask;
+            while (emailTable[i] != EMPTY_ENTRY) {
+                i = (i + 1) & mask;
+            }
+            emailTable[i] = slot + 1;
+            emailTableOccupied++;
+        }
+    }
+
+    private User readUser(int slot) {
+        long address = addresses[slot];
+        ByteBuffer chunk = chunks.get((int) (address >>> 32));
+        int offset = (int) address;
+        byte[] name = new byte[chunk.getInt(offset)];
+        chunk.get(offset + 4, name);
+        int emailOffset = offset + 4 + name.length;
+        byte[] email = new byte[chunk.getInt(emailOffset)];
+        chunk.get(emailOffset + 4, email);
+
+        User user = new User(new String(name, StandardCharsets.UTF_8), new String(email, StandardCharsets.UTF_8));
+        user.setId(ids[slot]);
+        user.setVersion((long) versions[slot]);
+        return user;
+    }
+
+    private boolean emailEquals(int slot, byte[] email) {
+        long address = addresses[slot];
+        ByteBuffer chunk = chunks.get((int) (address >>> 32));
+        int emailOffset = (int) address + 4 + chunk.getInt((int) address);
+        if (chunk.getInt(emailOffset) != email.length) {
+            return false;
+        }
+        for (int i = 0; i < email.length; i++) {
+            if (chunk.get(emailOffset + 4 + i) != email[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int emailHashOfSlot(int slot) {
+        long address = addresses[slot];
+        ByteBuffer chunk = chunks.get((int) (address >>> 32));
+        int emailOffset = (int) address + 4 + chunk.getInt((int) address);
+        int length = chunk.getInt(emailOffset);
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chunk.get(emailOffset + 4 + i);
+        }
+        return mix(hash);
+    }
+
+    private static int emailHash(byte[] email) {
+        return mix(Arrays.hashCode(email));
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private int findEmailSlot(byte[] email) {
+        int mask = emailTable.length - 1;
+        for (int i = emailHash(email) & mask; ; i = (i + 1) & mask) {
+            int entry = emailTable[i];
+            if (entry == EMPTY_ENTRY) {
+                return -1;
+            }
+            if (entry != REMOVED_ENTRY && emailEquals(entry - 1, email)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private void indexEmail(int slot, byte[] email) {
+        if ((emailTableOccupied + 1) * 2 > emailTable.length) {
+            rehashEmailTable();
+        }
+        int mask = emailTable.length - 1;
+        int i = emailHash(email) & mask;
+        while (emailTable[i] != EMPTY_ENTRY && emailTable[i] != REMOVED_ENTRY) {
+            i = (i + 1) & mask;
+        }
+        if (emailTable[i] == EMPTY_ENTRY) {
+            emailTableOccupied++;
+        }
+        emailTable[i] = slot + 1;
+    }
+
+    private void removeEmailEntry(int slot) {
+        int mask = emailTable.length - 1;
+        for (int i = emailHashOfSlot(slot) & mask; emailTable[i] != EMPTY_ENTRY; i = (i + 1) & mask) {
+            if (emailTable[i] == slot + 1) {
+                emailTable[i] = REMOVED_ENTRY;
+                return;
+            }
+        }
+    }
+
+    private void rehashEmailTable() {
+        int capacity = Integer.highestOneBit(Math.max(INITIAL_CAPACITY, liveCount * 4) - 1) << 1;
+        int[] table = new int[capacity];
+        int mask = capacity - 1;
+        int occupied = 0;
+        for (int entry : emailTable) {
+            if (entry != EMPTY_ENTRY && entry != REMOVED_ENTRY) {
+                int i = emailHashOfSlot(entry - 1) & mask;
+                while (table[i] != EMPTY_ENTRY) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = entry;
+                occupied++;
+            }
+        }
+        emailTable = table;
+        emailTableOccupied = occupied;
+    }
+}
@@ -1,34 +1,26 @@
 package com.example.sampleproj.service;
 
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
-import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
-import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
-import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestOperations;
 
-import java.util.Map;
-
+/**
+ * Userinfo client for OAuth2 logins, using the timed HTTP client from
+ * {@code OAuth2ClientConfig}. Logins are recorded by
+ * {@link AuthenticationAuditLog}, off the request thread.
+ */
 @Service
 public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 
-    @Override
-    public OAuth2User loadUser(OAuth2UserRequest userRequest) throws OAuth2AuthenticationException {
-        OAuth2User oauth2User = super.loadUser(userRequest);
-        
-        Map<String, Object> attributes = oauth2User.getAttributes();
-        String registrationId = userRequest.getClientRegistration().getRegistrationId();
-        
-        if ("google".equals(registrationId)) {
-            String email = (String) attributes.get("email");
-            String name = (String) attributes.get("name");
-            String picture = (String) attributes.get("picture");
-            
-            System.out.println("Google user logged in:");
-            System.out.println("Email: " + email);
-            System.out.println("Name: " + name);
-            System.out.println("Picture: " + picture);
+    @Autowired(required = false)
+    private RestOperations oauth2RestOperations;
+
+    @PostConstruct
+    void useConfiguredClient() {
+        if (oauth2RestOperations != null) {
+            setRestOperations(oauth2RestOperations);
         }
-        
-        return oauth2User;
     }
-}
\ No newline at end of file
+}
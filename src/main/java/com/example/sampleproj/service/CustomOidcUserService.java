@@ -0,0 +1,75 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.security.TtlCache;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.OidcUserInfo;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.security.oauth2.core.oidc.user.OidcUserAuthority;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Builds the principal of an OpenID Connect login from the ID token, which
+ * the login provider has already verified (signature, issuer, audience,
+ * expiry and nonce), instead of calling the userinfo endpoint on every
+ * login. Userinfo is only fetched when the ID token lacks one of the
+ * required claims, and the answer is cached for {@code ttl}. Subjects are
+ * only unique within one provider, so the cache is keyed by client
+ * registration and subject.
+ */
+public class CustomOidcUserService implements OAuth2UserService<OidcUserRequest, OidcUser> {
+
+    private final OidcUserService userInfoService = new OidcUserService();
+    private final Set<String> requiredClaims;
+    private final TtlCache<String, OidcUserInfo> userInfoCache;
+
+    public CustomOidcUserService(OAuth2UserService<OAuth2UserRequest, OAuth2User> userInfoClient,
+                                 Set<String> requiredClaims, Duration ttl, int maxEntries) {
+        this.userInfoService.setOauth2UserService(userInfoClient);
+        this.requiredClaims = Set.copyOf(requiredClaims);
+        this.userInfoCache = new TtlCache<>(ttl, maxEntries);
+    }
+
+    @Override
+    public OidcUser loadUser(OidcUserRequest userRequest) throws OAuth2AuthenticationException {
+        OidcIdToken idToken = userRequest.getIdToken();
+        OidcUserInfo userInfo = null;
+        if (!idToken.getClaims().keySet().containsAll(requiredClaims)) {
+            String cacheKey = userRequest.getClientRegistration().getRegistrationId() + '\0' + idToken.getSubject();
+            userInfo = userInfoCache.get(cacheKey);
+            if (userInfo == null) {
+                userInfo = userInfoService.loadUser(userRequest).getUserInfo();
+                if (userInfo != null) {
+                    userInfoCache.put(cacheKey, userInfo);
+                }
+            }
+        }
+
+        Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+        authorities.add(new OidcUserAuthority(idToken, userInfo));
+        for (String scope : userRequest.getAccessToken().getScopes()) {
+            authorities.add(new SimpleGrantedAuthority("SCOPE_" + scope));
+        }
+        String nameAttribute = userRequest.getClientRegistration().getProviderDetails()
+            .getUserInfoEndpoint().getUserNameAttributeName();
+        return StringUtils.hasText(nameAttribute)
+            ? new DefaultOidcUser(authorities, idToken, userInfo, nameAttribute)
+            : new DefaultOidcUser(authorities, idToken, userInfo);
+    }
+
+    public void clearCache() {
+        userInfoCache.clear();
+    }
+}
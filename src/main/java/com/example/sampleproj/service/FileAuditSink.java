@@ -0,0 +1,45 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.AuthAuditEvent;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends events to a file as JSON lines, flushing once per batch.
+ */
+public class FileAuditSink implements AuditSink {
+
+    private final ObjectWriter writer;
+    private final BufferedWriter out;
+
+    public FileAuditSink(Path file, ObjectWriter writer) throws IOException {
+        this.writer = writer;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public void write(List<AuthAuditEvent> events) throws IOException {
+        for (AuthAuditEvent event : events) {
+            out.write(writer.writeValueAsString(event));
+            out.newLine();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
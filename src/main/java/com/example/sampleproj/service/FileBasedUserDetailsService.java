@@ -1,20 +1,58 @@
 package com.example.sampleproj.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+/**
+ * File-based users for form login.
+ * <p>
+ * Users are read from {@code app.security.users-file}, one per line as
+ * {@code username={id}hash,ROLE_A,ROLE_B}. The {@code ADMIN_PASSWORD_HASH},
+ * {@code MODERATOR_PASSWORD_HASH} and {@code VIEWER_PASSWORD_HASH}
+ * environment properties define or override the built-in accounts.
+ * <p>
+ * Each user is turned into a {@link UserDetails} once, at load time, so a
+ * lookup is a single map read and a shallow copy. When the file
+ * is on the file system it is watched: a changed file is parsed into a new
+ * map off to the side, which then replaces the old one in one volatile
+ * write, so logins neither lock nor wait during a reload. A file that fails
+ * to parse leaves the current users in place.
+ */
 @Service
-public class FileBasedUserDetailsService implements UserDetailsService {
+public class FileBasedUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
+    private static final Logger log = LoggerFactory.getLogger(FileBasedUserDetailsService.class);
+
+    private static final long RELOAD_SETTLE_MILLIS = 250;
 
     @Value("${ADMIN_PASSWORD_HASH:}")
     private String adminPasswordHash;
@@ -25,47 +63,69 @@ public class FileBasedUserDetailsService implements UserDetailsService {
     @Value("${VIEWER_PASSWORD_HASH:}")
     private String viewerPasswordHash;
 
-    private final Map<String, UserInfo> users = new HashMap<>();
+    @Value("${app.security.users-file:}")
+    private String usersFile;
+
+    @Value("${app.security.watch-users-file:true}")
+    private boolean watchUsersFile;
+
+    // Replaced as a whole on reload; only rehash-on-login writes into it
+    private volatile Map<String, FileUser> users = Map.of();
+
+    private WatchService watchService;
+    private Thread watcher;
 
     @PostConstruct
     public void loadUsers() {
-        // Load users directly from environment variables instead of file
-        // This approach eliminates hard-coded credentials in files
-        
-        // Check if environment variables are set, otherwise throw exception for production safety
-        if (adminPasswordHash.isEmpty() || moderatorPasswordHash.isEmpty() || viewerPasswordHash.isEmpty()) {
-            throw new IllegalStateException(
-                "Password hashes must be provided via environment variables: " +
-                "ADMIN_PASSWORD_HASH, MODERATOR_PASSWORD_HASH, VIEWER_PASSWORD_HASH. " +
-                "For development/testing, set profile to 'test' to use default credentials."
-            );
+        Resource resource = usersFile == null || usersFile.isBlank()
+            ? null
+            : new DefaultResourceLoader().getResource(usersFile);
+        users = readUsers(resource);
+        log.info("Loaded {} users", users.size());
+
+        if (watchUsersFile && resource != null && resource.isFile()) {
+            try {
+                startWatching(resource.getFile().toPath().toAbsolutePath());
+            } catch (IOException e) {
+                log.warn("Cannot watch {} for changes; edits need a restart", usersFile, e);
+            }
         }
-        
-        users.put("admin", new UserInfo(adminPasswordHash, Arrays.asList("ROLE_ADMIN")));
-        users.put("moderator", new UserInfo(moderatorPasswordHash, Arrays.asList("ROLE_MODERATOR")));
-        users.put("viewer", new UserInfo(viewerPasswordHash, Arrays.asList("ROLE_VIEWER")));
-        
-        System.out.println("Loaded " + users.size() + " users from environment variables");
-        users.keySet().forEach(user -> System.out.println("Loaded user: " + user));
     }
 
+    @PreDestroy
+    public void stopWatching() {
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.debug("Could not close the users file watcher", e);
+            }
+        }
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        UserInfo userInfo = users.get(username);
-        if (userInfo == null) {
+        FileUser user = users.get(username);
+        if (user == null) {
             throw new UsernameNotFoundException("User not found: " + username);
         }
+        // The copy becomes the principal; erasing its credentials after the
+        // login must not blank the hash of the shared instance
+        return user.copy();
+    }
 
-        List<SimpleGrantedAuthority> authorities = userInfo.getRoles().stream()
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
-
-        return User.builder()
-                .username(username)
-                .password(userInfo.getPassword())
-                .authorities(authorities)
-                .build();
+    /**
+     * Replaces the user's hash after a login with an outdated one. The new
+     * hash lives in memory only; the file's hash comes back, and is upgraded
+     * again, on the next reload or restart.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        FileUser updated = users.computeIfPresent(user.getUsername(), (username, current) -> current.withPassword(newPassword));
+        return updated != null ? updated.copy() : user;
     }
 
     public boolean userExists(String username) {
@@ -77,25 +137,212 @@ public class FileBasedUserDetailsService implements UserDetailsService {
     }
 
     public List<String> getUserRoles(String username) {
-        UserInfo userInfo = users.get(username);
-        return userInfo != null ? new ArrayList<>(userInfo.getRoles()) : new ArrayList<>();
+        FileUser user = users.get(username);
+        if (user == null) {
+            return new ArrayList<>();
+        }
+        return user.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private Map<String, FileUser> readUsers(Resource resource) {
+        Map<String, FileUser> loaded = new ConcurrentHashMap<>();
+        // Users with the same roles share one authority list
+        Map<List<String>, List<GrantedAuthority>> authorityLists = new HashMap<>();
+
+        if (resource != null && resource.exists()) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#") || line.startsWith("!")) {
+                        continue;
+                    }
+                    int separator = line.indexOf('=');
+                    String[] fields = separator > 0 ? line.substring(separator + 1).split(",") : new String[0];
+                    if (fields.length == 0 || fields[0].isBlank()) {
+                        log.warn("Skipping malformed line {} in {}", lineNumber, usersFile);
+                        continue;
+                    }
+                    List<String> roles = new ArrayList<>(fields.length - 1);
+                    for (int i = 1; i < fields.length; i++) {
+                        if (!fields[i].isBlank()) {
+                            roles.add(fields[i].trim());
+                        }
+                    }
+                    String username = line.substring(0, separator).trim();
+                    loaded.put(username, new FileUser(username, fields[0].trim(), authorities(roles, authorityLists)));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read users from " + usersFile, e);
+            }
+        }
+
+        putBuiltInUser(loaded, authorityLists, "admin", adminPasswordHash, "ROLE_ADMIN");
+        putBuiltInUser(loaded, authorityLists, "moderator", moderatorPasswordHash, "ROLE_MODERATOR");
+        putBuiltInUser(loaded, authorityLists, "viewer", viewerPasswordHash, "ROLE_VIEWER");
+
+        // Refuse to start without any credentials rather than run with none
+        if (loaded.isEmpty()) {
+            throw new IllegalStateException(
+                "No users configured. List users in app.security.users-file or provide password hashes via " +
+                "ADMIN_PASSWORD_HASH, MODERATOR_PASSWORD_HASH, VIEWER_PASSWORD_HASH. " +
+                "For development/testing, set profile to 'test' to use default credentials."
+            );
+        }
+        return loaded;
+    }
+
+    private static void putBuiltInUser(Map<String, FileUser> loaded, Map<List<String>, List<GrantedAuthority>> authorityLists,
+                                       String username, String passwordHash, String role) {
+        if (passwordHash != null && !passwordHash.isEmpty()) {
+            loaded.put(username, new FileUser(username, passwordHash, authorities(List.of(role), authorityLists)));
+        }
     }
 
-    private static class UserInfo {
-        private final String password;
-        private final List<String> roles;
+    private static List<GrantedAuthority> authorities(List<String> roles, Map<List<String>, List<GrantedAuthority>> authorityLists) {
+        return authorityLists.computeIfAbsent(roles, key -> key.stream()
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toUnmodifiableList()));
+    }
+
+    private void startWatching(Path file) throws IOException {
+        Path directory = file.getParent();
+        watchService = directory.getFileSystem().newWatchService();
+        // Watch the directory: editors and deploy tools often replace the file by renaming
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watcher = new Thread(() -> watch(file), "users-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
 
-        public UserInfo(String password, List<String> roles) {
+    private void watch(Path file) {
+        Resource resource = new DefaultResourceLoader().getResource(usersFile);
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = touchesFile(key, file);
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+                // Let the writer finish and fold its remaining events into this reload
+                WatchKey more;
+                while ((more = watchService.poll(RELOAD_SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    touchesFile(more, file);
+                    more.reset();
+                }
+                reload(resource);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    private static boolean touchesFile(WatchKey key, Path file) {
+        boolean touched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                touched = true;
+            }
+        }
+        return touched;
+    }
+
+    private void reload(Resource resource) {
+        try {
+            Map<String, FileUser> reloaded = readUsers(resource);
+            users = reloaded;
+            log.info("Reloaded {} users from {}", reloaded.size(), usersFile);
+        } catch (RuntimeException e) {
+            log.error("Keeping the current users; could not reload {}", usersFile, e);
+        }
+    }
+
+    /**
+     * User as loaded from the file. Callers only ever get a {@link #copy()},
+     * whose password is erased once a login succeeds, so the hash does not
+     * stay in the session's principal.
+     */
+    private static final class FileUser implements UserDetails, CredentialsContainer {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String username;
+        private String password;
+        private final List<GrantedAuthority> authorities;
+
+        FileUser(String username, String password, List<GrantedAuthority> authorities) {
+            this.username = username;
             this.password = password;
-            this.roles = roles;
+            this.authorities = authorities;
+        }
+
+        FileUser withPassword(String newPassword) {
+            return new FileUser(username, newPassword, authorities);
+        }
+
+        FileUser copy() {
+            return new FileUser(username, password, authorities);
+        }
+
+        @Override
+        public void eraseCredentials() {
+            password = null;
         }
 
+        @Override
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
         public String getPassword() {
             return password;
         }
 
-        public List<String> getRoles() {
-            return roles;
+        @Override
+        public Collection<? extends GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+
+        @Override
+        public boolean isAccountNonExpired() {
+            return true;
+        }
+
+        @Override
+        public boolean isAccountNonLocked() {
+            return true;
+        }
+
+        @Override
+        public boolean isCredentialsNonExpired() {
+            return true;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof FileUser user && username.equals(user.username);
+        }
+
+        @Override
+        public int hashCode() {
+            return username.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "FileUser [Username=" + username + ", Granted Authorities=" + authorities + "]";
         }
     }
-}
\ No newline at end of file
+}
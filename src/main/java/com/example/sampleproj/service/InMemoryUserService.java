@@ -0,0 +1,280 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.User;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Keeps all users in memory. When {@code app.users.journal.enabled} is set,
+ * every mutation is also written to a {@link UserJournal} and the store is
+ * rebuilt from it on startup.
+ */
+@Service
+@ConditionalOnProperty(name = "app.users.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryUserService extends AbstractUserService {
+
+    private static final int LOCK_STRIPES = 64;
+
+    // Primary index by id, kept sorted so pages can be cut by id (keyset
+    // pagination), and a secondary O(1) index by email. Both are safe for
+    // concurrent access from request threads.
+    private final ConcurrentNavigableMap<Long, User> users = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Long> usersByEmail = new ConcurrentHashMap<>();
+    private final AtomicLong idGenerator = new AtomicLong(1);
+    // ConcurrentSkipListMap.size() walks the whole map, so track the count
+    private final AtomicLong userCount = new AtomicLong();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final UserJournal journal;
+
+    {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public InMemoryUserService() {
+        this((UserJournal) null);
+    }
+
+    @Autowired
+    public InMemoryUserService(ObjectProvider<UserJournal> journal) {
+        this(journal.getIfAvailable());
+    }
+
+    InMemoryUserService(UserJournal journal) {
+        this.journal = journal;
+        if (journal != null) {
+            long nextId = journal.open(new JournalReplayer(), new UserJournal.SnapshotSource() {
+                @Override
+                public long nextId() {
+                    return idGenerator.get();
+                }
+
+                @Override
+                public void forEachUser(Consumer<? super User> action) {
+                    InMemoryUserService.this.forEachUser(action);
+                }
+            });
+            idGenerator.accumulateAndGet(nextId, Math::max);
+        }
+        // Only a brand-new store gets sample data; a recovered store that is
+        // empty had its users deleted
+        if (journal == null || journal.isFresh()) {
+            createUser(new User("John Doe", "john.doe@example.com"));
+            createUser(new User("Jane Smith", "jane.smith@example.com"));
+        }
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return new ArrayList<>(users.values());
+    }
+
+    @Override
+    public List<User> getUsersAfter(Long afterId, int limit) {
+        Collection<User> tail = afterId != null ? users.tailMap(afterId, false).values() : users.values();
+        List<User> page = new ArrayList<>();
+        for (User user : tail) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(user);
+        }
+        return page;
+    }
+
+    @Override
+    public void forEachUser(Consumer<? super User> action) {
+        users.values().forEach(action);
+    }
+
+    @Override
+    public Optional<User> getUserById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public Optional<User> getUserByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        Long id = usersByEmail.get(email);
+        return id != null ? getUserById(id) : Optional.empty();
+    }
+
+    @Override
+    public User createUser(User user) {
+        Long id = idGenerator.getAndIncrement();
+        if (usersByEmail.putIfAbsent(user.getEmail(), id) != null) {
+            throw emailTaken(user.getEmail());
+        }
+        user.setId(id);
+        user.setVersion(0L);
+        long ticket;
+        synchronized (lockFor(id)) {
+            users.put(id, user);
+            userCount.incrementAndGet();
+            ticket = journalPut(user);
+            publish(UserChangeEvent.Type.CREATED, user);
+        }
+        awaitDurable(ticket);
+        return user;
+    }
+
+    @Override
+    public Optional<User> createIfEmailAbsent(User user) {
+        Long id = idGenerator.getAndIncrement();
+        // Claiming the email first makes concurrent creates with the same email
+        // race on a single putIfAbsent instead of a scan followed by an insert
+        if (usersByEmail.putIfAbsent(user.getEmail(), id) != null) {
+            return Optional.empty();
+        }
+        user.setId(id);
+        user.setVersion(0L);
+        long ticket;
+        synchronized (lockFor(id)) {
+            users.put(id, user);
+            userCount.incrementAndGet();
+            ticket = journalPut(user);
+            publish(UserChangeEvent.Type.CREATED, user);
+        }
+        awaitDurable(ticket);
+        return Optional.of(user);
+    }
+
+    @Override
+    public List<Optional<User>> createUsers(List<User> newUsers) {
+        List<Optional<User>> created = new ArrayList<>(newUsers.size());
+        for (User user : newUsers) {
+            created.add(createIfEmailAbsent(user));
+        }
+        return created;
+    }
+
+    @Override
+    public Optional<User> updateUser(Long id, User updatedUser, Long expectedVersion) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        User user;
+        long ticket;
+        synchronized (lockFor(id)) {
+            User existing = users.get(id);
+            if (existing == null) {
+                return Optional.empty();
+            }
+            if (expectedVersion != null && !expectedVersion.equals(existing.getVersion())) {
+                throw new OptimisticLockingFailureException("User " + id + " has been modified");
+            }
+            user = new User(updatedUser.getName(), updatedUser.getEmail());
+            user.setId(id);
+            user.setVersion(existing.getVersion() + 1);
+            if (!existing.getEmail().equals(user.getEmail())) {
+                // Claim the new email before letting go of the old one; another
+                // user's entry is never overwritten
+                Long owner = usersByEmail.putIfAbsent(user.getEmail(), id);
+                if (owner != null && !owner.equals(id)) {
+                    throw emailTaken(user.getEmail());
+                }
+                usersByEmail.remove(existing.getEmail(), id);
+            }
+            users.put(id, user);
+            ticket = journalPut(user);
+            publish(UserChangeEvent.Type.UPDATED, user);
+        }
+        awaitDurable(ticket);
+        return Optional.of(user);
+    }
+
+    @Override
+    public boolean deleteUser(Long id) {
+        if (id == null) {
+            return false;
+        }
+        long ticket;
+        synchronized (lockFor(id)) {
+            User removed = users.remove(id);
+            if (removed == null) {
+                return false;
+            }
+            usersByEmail.remove(removed.getEmail(), id);
+            userCount.decrementAndGet();
+            ticket = journal != null ? journal.appendDelete(id) : 0;
+            publish(UserChangeEvent.Type.DELETED, removed);
+        }
+        awaitDurable(ticket);
+        return true;
+    }
+
+    @Override
+    public long getUserCount() {
+        return userCount.get();
+    }
+
+    // Writes to the same id are serialized on a striped lock so the email
+    // index never sees two writers for one user and journal records for an id
+    // are in the same order as the changes; readers never lock.
+    private Object lockFor(Long id) {
+        return locks[(int) (id & (LOCK_STRIPES - 1))];
+    }
+
+    private static DuplicateKeyException emailTaken(String email) {
+        return new DuplicateKeyException("Email already exists: " + email);
+    }
+
+    private long journalPut(User user) {
+        return journal != null ? journal.appendPut(user) : 0;
+    }
+
+    // Waits for the fsync, if the policy asks for one, outside the stripe lock
+    private void awaitDurable(long ticket) {
+        if (journal != null) {
+            journal.awaitDurable(ticket);
+        }
+    }
+
+    private final class JournalReplayer implements UserJournal.Replayer {
+
+        @Override
+        public void put(long id, long version, String name, String email) {
+            User user = new User(name, email);
+            user.setId(id);
+            user.setVersion(version);
+            User existing = users.put(id, user);
+            if (existing == null) {
+                userCount.incrementAndGet();
+            } else if (!existing.getEmail().equals(email)) {
+                usersByEmail.remove(existing.getEmail(), id);
+            }
+            usersByEmail.put(email, id);
+            idGenerator.accumulateAndGet(id + 1, Math::max);
+        }
+
+        @Override
+        public void delete(long id) {
+            User removed = users.remove(id);
+            if (removed != null) {
+                usersByEmail.remove(removed.getEmail(), id);
+                userCount.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.AuthAuditEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Inserts events into a table (created if missing) with one JDBC batch
+ * per drained batch. Text columns are cut to their width first, since a
+ * single over-long username would otherwise fail the whole batch.
+ */
+public class JdbcAuditSink implements AuditSink {
+
+    private static final int PROVIDER_WIDTH = 64;
+    private static final int USERNAME_WIDTH = 255;
+    private static final int REMOTE_ADDRESS_WIDTH = 64;
+    private static final int REASON_WIDTH = 128;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insert;
+
+    public JdbcAuditSink(DataSource dataSource, String table) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+            + "EVENT_TIME TIMESTAMP NOT NULL, "
+            + "OUTCOME VARCHAR(16) NOT NULL, "
+            + "PROVIDER VARCHAR(" + PROVIDER_WIDTH + "), "
+            + "USERNAME VARCHAR(" + USERNAME_WIDTH + "), "
+            + "REMOTE_ADDRESS VARCHAR(" + REMOTE_ADDRESS_WIDTH + "), "
+            + "REASON VARCHAR(" + REASON_WIDTH + "), "
+            + "LATENCY_MICROS BIGINT NOT NULL)");
+        this.insert = "INSERT INTO " + table
+            + " (EVENT_TIME, OUTCOME, PROVIDER, USERNAME, REMOTE_ADDRESS, REASON, LATENCY_MICROS)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+    }
+
+    @Override
+    public void write(List<AuthAuditEvent> events) {
+        jdbcTemplate.batchUpdate(insert, events, events.size(), (ps, event) -> {
+            ps.setTimestamp(1, Timestamp.from(event.timestamp()));
+            ps.setString(2, event.outcome().name());
+            ps.setString(3, truncate(event.provider(), PROVIDER_WIDTH));
+            ps.setString(4, truncate(event.username(), USERNAME_WIDTH));
+            ps.setString(5, truncate(event.remoteAddress(), REMOTE_ADDRESS_WIDTH));
+            ps.setString(6, truncate(event.reason(), REASON_WIDTH));
+            ps.setLong(7, event.latencyMicros());
+        });
+    }
+
+    static String truncate(String value, int width) {
+        if (value == null || value.length() <= width) {
+            return value;
+        }
+        // Never leave half of a surrogate pair at the end
+        int end = Character.isHighSurrogate(value.charAt(width - 1)) ? width - 1 : width;
+        return value.substring(0, end);
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.User;
+import com.example.sampleproj.model.UserStoreVersion;
+import com.example.sampleproj.repository.UserRepository;
+import com.example.sampleproj.repository.UserStoreVersionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Database-backed user store. Reads by id and by email are served from the
+ * Hibernate second-level entity and natural-id caches, so hot users do not
+ * cost a SQL round trip per request. Every write also bumps the
+ * {@link UserStoreVersion} row in its transaction, which is what
+ * {@link #getStoreVersion()} reads.
+ */
+@Service
+@ConditionalOnProperty(name = "app.users.store", havingValue = "jpa")
+@Transactional(readOnly = true)
+public class JpaUserService extends AbstractUserService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserStoreVersionRepository storeVersionRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void createStoreVersion() {
+        if (storeVersionRepository.existsById(UserStoreVersion.ID)) {
+            return;
+        }
+        // Random like the other stores' versions, so ETags cached before the
+        // table was recreated do not match again
+        try {
+            storeVersionRepository.saveAndFlush(new UserStoreVersion(ThreadLocalRandom.current().nextLong() >>> 1));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created it first
+        }
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return userRepository.findAll(Sort.by("id"));
+    }
+
+    @Override
+    public List<User> getUsersAfter(Long afterId, int limit) {
+        PageRequest page = PageRequest.ofSize(limit);
+        return afterId != null
+                ? userRepository.findByIdGreaterThanOrderByIdAsc(afterId, page)
+                : userRepository.findAllByOrderByIdAsc(page);
+    }
+
+    @Override
+    public void forEachUser(Consumer<? super User> action) {
+        try (Stream<User> users = userRepository.streamAllByOrderByIdAsc()) {
+            users.forEach(user -> {
+                action.accept(user);
+                // Keep the persistence context from growing with the table
+                entityManager.detach(user);
+            });
+        }
+    }
+
+    @Override
+    public Optional<User> getUserById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return userRepository.findById(id);
+    }
+
+    @Override
+    public Optional<User> getUserByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(email);
+    }
+
+    @Override
+    @Transactional
+    public User createUser(User user) {
+        user.setId(null);
+        user.setVersion(null);
+        User created = userRepository.save(user);
+        storeVersionRepository.increment();
+        publishAfterCommit(UserChangeEvent.Type.CREATED, created);
+        return created;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<User> createIfEmailAbsent(User user) {
+        // The unique email constraint is the claim: one INSERT either wins or
+        // fails, with no separate lookup and no window between check and insert
+        user.setId(null);
+        user.setVersion(null);
+        User created;
+        try {
+            created = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            return Optional.empty();
+        }
+        storeVersionRepository.increment();
+        publish(UserChangeEvent.Type.CREATED, created);
+        return Optional.of(created);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Optional<User>> createUsers(List<User> users) {
+        try {
+            return transactionTemplate.execute(status -> {
+                users.forEach(user -> {
+                    user.setId(null);
+                    user.setVersion(null);
+                });
+                List<User> created = userRepository.saveAll(users);
+                // Send the batched inserts now and drop the chunk from the persistence context
+                userRepository.flush();
+                entityManager.clear();
+                storeVersionRepository.increment();
+                created.forEach(user -> publishAfterCommit(UserChangeEvent.Type.CREATED, user));
+                return created.stream().map(Optional::of).toList();
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Some email in the chunk is taken; the constraint decides user by user
+            return users.stream().map(this::createIfEmailAbsent).toList();
+        }
+    }
+
+    // The interface default would run read-only and call the method below
+    // without going through the transactional proxy
+    @Override
+    @Transactional
+    public Optional<User> updateUser(Long id, User updatedUser) {
+        return updateUser(id, updatedUser, null);
+    }
+
+    @Override
+    @Transactional
+    public Optional<User> updateUser(Long id, User updatedUser, Long expectedVersion) {
+        return getUserById(id).map(user -> {
+            // A concurrent update committed after this read still fails on the
+            // version check in the UPDATE statement
+            if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+                throw new OptimisticLockingFailureException("User " + id + " has been modified");
+            }
+            boolean emailChanged = !user.getEmail().equals(updatedUser.getEmail());
+            user.setName(updatedUser.getName());
+            user.setEmail(updatedUser.getEmail());
+            if (emailChanged) {
+                // Let the unique email constraint fail here, translated, rather than at commit
+                userRepository.flush();
+            }
+            storeVersionRepository.increment();
+            publishAfterCommit(UserChangeEvent.Type.UPDATED, user);
+            return user;
+        });
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteUser(Long id) {
+        Optional<User> user = getUserById(id);
+        user.ifPresent(existing -> {
+            userRepository.delete(existing);
+            storeVersionRepository.increment();
+            publishAfterCommit(UserChangeEvent.Type.DELETED, existing);
+        });
+        return user.isPresent();
+    }
+
+    @Override
+    public long getUserCount() {
+        return userRepository.count();
+    }
+
+    // Other instances write to the same table, so a counter kept by this
+    // instance would miss their changes; the shared row does not
+    @Override
+    public long getStoreVersion() {
+        return storeVersionRepository.findVersion().orElse(0L);
+    }
+
+    // Listeners must never see a change that is later rolled back
+    private void publishAfterCommit(UserChangeEvent.Type type, User user) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(type, user);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(type, user);
+            }
+        });
+    }
+}
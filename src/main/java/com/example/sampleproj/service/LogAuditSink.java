@@ -0,0 +1,30 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.AuthAuditEvent;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Writes each event as one JSON line to the {@code audit} logger, for log
+ * aggregation.
+ */
+public class LogAuditSink implements AuditSink {
+
+    private static final Logger audit = LoggerFactory.getLogger("audit");
+
+    private final ObjectWriter writer;
+
+    public LogAuditSink(ObjectWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(List<AuthAuditEvent> events) throws Exception {
+        for (AuthAuditEvent event : events) {
+            audit.info(writer.writeValueAsString(event));
+        }
+    }
+}
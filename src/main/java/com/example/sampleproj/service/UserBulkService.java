@@ -0,0 +1,277 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.User;
+import com.example.sampleproj.model.UserImportResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming bulk import and export of users as NDJSON or CSV. Input is read
+ * record by record and inserted in chunks; output is written while walking
+ * the store. Neither side holds more than one chunk in memory. A quoted CSV
+ * field may span lines, so names with newlines survive an export and
+ * re-import; errors are reported against the line the record starts on.
+ */
+@Service
+public class UserBulkService {
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final MediaType NDJSON = MediaType.parseMediaType(NDJSON_VALUE);
+
+    private static final String CSV_HEADER = "name,email";
+    private static final String CSV_EXPORT_HEADER = "id," + CSV_HEADER;
+
+    // An unterminated quote must not pull the rest of the file into one record
+    private static final int MAX_CSV_RECORD_CHARS = 64 * 1024;
+
+    private static final Logger log = LoggerFactory.getLogger(UserBulkService.class);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${app.users.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.users.import.max-errors:1000}")
+    private int maxErrors;
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format fromMediaType(MediaType mediaType) {
+            if (mediaType != null && MediaType.parseMediaType("text/csv").isCompatibleWith(mediaType)) {
+                return CSV;
+            }
+            return NDJSON;
+        }
+
+        public static Format fromName(String name) {
+            return "csv".equalsIgnoreCase(name) ? CSV : NDJSON;
+        }
+
+        public MediaType mediaType() {
+            return this == CSV ? MediaType.parseMediaType("text/csv") : UserBulkService.NDJSON;
+        }
+    }
+
+    public UserImportResult importUsers(InputStream input, Format format) throws IOException {
+        UserImportResult result = new UserImportResult();
+        List<User> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        Set<String> chunkEmails = new HashSet<>();
+        boolean csvWithId = false;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            long recordLine = lineNumber;
+            if (format == Format.CSV && hasOpenQuote(line)) {
+                StringBuilder record = new StringBuilder(line);
+                boolean open = true;
+                String next;
+                while (open && record.length() < MAX_CSV_RECORD_CHARS && (next = reader.readLine()) != null) {
+                    lineNumber++;
+                    record.append('\n').append(next);
+                    open = hasOpenQuote(next) != open;
+                }
+                line = record.toString();
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && recordLine == 1 && isCsvHeader(line)) {
+                // Files written by exportUsers start with an id column, which is ignored
+                csvWithId = line.trim().equalsIgnoreCase(CSV_EXPORT_HEADER);
+                continue;
+            }
+
+            User user;
+            try {
+                user = format == Format.CSV ? parseCsv(line, csvWithId) : parseJson(line);
+            } catch (IllegalArgumentException e) {
+                result.addError(recordLine, e.getMessage(), maxErrors);
+                continue;
+            }
+
+            Set<ConstraintViolation<User>> violations = validator.validate(user);
+            if (!violations.isEmpty()) {
+                result.addError(recordLine, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")), maxErrors);
+                continue;
+            }
+            // Emails already in the store are rejected by createUsers when the chunk is inserted
+            if (!chunkEmails.add(user.getEmail())) {
+                result.addError(recordLine, "Email already exists: " + user.getEmail(), maxErrors);
+                continue;
+            }
+
+            chunk.add(user);
+            chunkLines.add(recordLine);
+            if (chunk.size() >= chunkSize) {
+                flush(chunk, chunkLines, result);
+                chunkEmails.clear();
+            }
+        }
+        flush(chunk, chunkLines, result);
+        return result;
+    }
+
+    public void exportUsers(OutputStream output, Format format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writerFor(User.class);
+        if (format == Format.CSV) {
+            writer.write(CSV_EXPORT_HEADER + "\n");
+        }
+        try {
+            userService.forEachUser(user -> {
+                try {
+                    if (format == Format.CSV) {
+                        writer.write(user.getId() + "," + csvField(user.getName()) + "," + csvField(user.getEmail()) + "\n");
+                    } else {
+                        writer.write(jsonWriter.writeValueAsString(user));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void flush(List<User> chunk, List<Long> chunkLines, UserImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            List<Optional<User>> created = userService.createUsers(chunk);
+            for (int i = 0; i < created.size(); i++) {
+                if (created.get(i).isPresent()) {
+                    result.addImported(1);
+                } else {
+                    result.addError(chunkLines.get(i), "Email already exists: " + chunk.get(i).getEmail(), maxErrors);
+                }
+            }
+        } catch (RuntimeException e) {
+            // The cause can carry SQL and constraint names, so it stays in the log
+            log.warn("Inserting an import chunk of {} users failed", chunk.size(), e);
+            // A failed chunk is reported line by line so the caller can retry just those lines
+            for (Long line : chunkLines) {
+                result.addError(line, "Insert failed", maxErrors);
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private User parseJson(String line) {
+        try {
+            User parsed = objectMapper.readValue(line, User.class);
+            return new User(parsed.getName(), parsed.getEmail());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private boolean isCsvHeader(String line) {
+        String header = line.trim();
+        return header.equalsIgnoreCase(CSV_HEADER) || header.equalsIgnoreCase(CSV_EXPORT_HEADER);
+    }
+
+    private User parseCsv(String line, boolean withId) {
+        List<String> fields = splitCsv(line);
+        int first = withId ? 1 : 0;
+        if (fields.size() != first + 2) {
+            throw new IllegalArgumentException("Expected " + (first + 2) + " columns ("
+                    + (withId ? CSV_EXPORT_HEADER : CSV_HEADER) + ") but found " + fields.size());
+        }
+        return new User(fields.get(first).trim(), fields.get(first + 1).trim());
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(2);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static boolean hasOpenQuote(String record) {
+        // Escaped quotes come in pairs, so an odd count means a field is still open
+        boolean open = false;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                open = !open;
+            }
+        }
+        return open;
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.User;
+
+/**
+ * A committed mutation of the user store. For {@link Type#DELETED} the user
+ * is the state that was removed.
+ */
+public class UserChangeEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final User user;
+
+    public UserChangeEvent(Type type, User user) {
+        this.type = type;
+        this.user = user;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public User getUser() {
+        return user;
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.sampleproj.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes user changes to Server-Sent Events subscribers.
+ * <p>
+ * Store writers only ever {@code offer} an event to each subscriber's bounded
+ * queue and hand the subscriber to a small pool of sender threads, so a slow
+ * or stuck client can never block a write. A subscriber whose queue overflows
+ * has missed events: it is sent a final {@code resync} event and closed, and
+ * is expected to reload the user list and subscribe again.
+ * <p>
+ * A send that blocks longer than {@code app.users.feed.send-timeout-ms}
+ * (a client that stopped reading) gets its subscriber dropped and its
+ * sender thread interrupted. Until the blocked write gives up, the pool is
+ * grown by one thread so the other subscribers keep their full set of
+ * senders.
+ */
+@Service
+public class UserChangeFeed implements UserChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(UserChangeFeed.class);
+
+    static final String RESYNC_EVENT = "resync";
+
+    @Autowired
+    private UserService userService;
+
+    @Value("${app.users.feed.queue-capacity:1024}")
+    private int queueCapacity;
+
+    @Value("${app.users.feed.max-subscribers:1000}")
+    private int maxSubscribers;
+
+    @Value("${app.users.feed.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${app.users.feed.heartbeat-ms:15000}")
+    private long heartbeatMillis;
+
+    @Value("${app.users.feed.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${app.users.feed.send-timeout-ms:10000}")
+    private long sendTimeoutMillis;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor senders;
+    private ScheduledExecutorService heartbeats;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "user-feed-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-feed-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Comments keep idle connections open through proxies and reveal
+        // clients that went away without closing
+        heartbeats.scheduleWithFixedDelay(() -> subscribers.forEach(Subscriber::heartbeat),
+                heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        long watchdogMillis = Math.max(1, sendTimeoutMillis / 2);
+        heartbeats.scheduleWithFixedDelay(() -> {
+            long now = System.nanoTime();
+            subscribers.forEach(subscriber -> subscriber.abandonIfStalled(now));
+        }, watchdogMillis, watchdogMillis, TimeUnit.MILLISECONDS);
+        userService.addChangeListener(this);
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeats.shutdownNow();
+        subscribers.forEach(subscriber -> {
+            subscriber.emitter.complete();
+            subscriber.close();
+        });
+        senders.shutdown();
+    }
+
+    /**
+     * Opens a new subscription, or returns {@code null} when the subscriber
+     * limit has been reached.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        return subscribe(emitter) ? emitter : null;
+    }
+
+    boolean subscribe(SseEmitter emitter) {
+        if (subscribers.size() >= maxSubscribers) {
+            return false;
+        }
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        return true;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void onUserChange(UserChangeEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(event);
+        }
+    }
+
+    private synchronized void resizeSenders(int delta) {
+        int size = senders.getCorePoolSize() + delta;
+        if (delta > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<UserChangeEvent> queue = new ArrayBlockingQueue<>(queueCapacity);
+        // At most one sender task per subscriber is queued or running
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean overflowed;
+        private volatile boolean heartbeatDue;
+        // System.nanoTime() when the send in progress started, 0 when idle;
+        // sendStarted and stalled change under the subscriber's monitor
+        private volatile long sendStarted;
+        private volatile boolean stalled;
+        private volatile Thread sender;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(UserChangeEvent event) {
+            if (!queue.offer(event)) {
+                overflowed = true;
+            }
+            schedule();
+        }
+
+        void heartbeat() {
+            heartbeatDue = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (!closed.get() && scheduled.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            sender = Thread.currentThread();
+            try {
+                if (overflowed) {
+                    queue.clear();
+                    emit(SseEmitter.event().name(RESYNC_EVENT).data(""));
+                    emitter.complete();
+                    close();
+                    return;
+                }
+                if (heartbeatDue) {
+                    heartbeatDue = false;
+                    emit(SseEmitter.event().comment("heartbeat"));
+                }
+                UserChangeEvent event;
+                while (!overflowed && !closed.get() && (event = queue.poll()) != null) {
+                    emit(SseEmitter.event()
+                            .name(event.getType().name().toLowerCase(Locale.ROOT))
+                            .data(event.getUser(), MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client is gone or the emitter already completed
+                log.debug("Dropping user change subscriber: {}", e.toString());
+                close();
+            } finally {
+                sender = null;
+                scheduled.set(false);
+                if (stalled) {
+                    // Clear an interrupt from abandonIfStalled before the thread goes back to the pool
+                    Thread.interrupted();
+                    resizeSenders(-1);
+                    completeQuietly();
+                }
+            }
+            if (overflowed || !queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void emit(SseEmitter.SseEventBuilder event) throws IOException {
+            sendStarted = System.nanoTime();
+            try {
+                emitter.send(event);
+            } finally {
+                synchronized (this) {
+                    sendStarted = 0;
+                }
+            }
+        }
+
+        void abandonIfStalled(long now) {
+            synchronized (this) {
+                long started = sendStarted;
+                if (started == 0 || stalled || now - started < TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis)) {
+                    return;
+                }
+                stalled = true;
+                // Taken back by send() once the blocked write returns
+                resizeSenders(1);
+            }
+            log.debug("Dropping user change subscriber: send blocked for over {} ms", sendTimeoutMillis);
+            close();
+            Thread thread = sender;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        private void completeQuietly() {
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // Already completed
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.remove(this);
+                queue.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.sampleproj.service;
+
+/**
+ * Receives user store mutations. Listeners are called on the writing thread,
+ * in commit order per user, so they must be quick and must not block.
+ */
+@FunctionalInterface
+public interface UserChangeListener {
+
+    void onUserChange(UserChangeEvent event);
+}
@@ -0,0 +1,528 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.User;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Durability for {@link InMemoryUserService}: a memory-mapped write-ahead log
+ * plus periodic compact snapshots.
+ * <p>
+ * Every mutation is appended as a full-state record ({@code put} or
+ * {@code delete} of one id), so replaying a record twice is harmless. That
+ * lets snapshots be taken while writes continue: the log is rolled to a new
+ * generation first, the store is then walked into {@code snapshot-N.dat},
+ * and recovery loads the newest snapshot and replays every log generation
+ * from {@code N} on. Older generations are deleted once a snapshot is safely
+ * on disk.
+ * <p>
+ * With {@code app.users.journal.fsync=always} a writer waits until its
+ * record has been forced to disk, and concurrent writers share one force
+ * (group commit). {@code interval} forces in the background every
+ * {@code app.users.journal.fsync-interval-ms}; {@code never} leaves flushing
+ * to the operating system.
+ */
+@Component
+@ConditionalOnProperty(name = "app.users.journal.enabled", havingValue = "true")
+public class UserJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(UserJournal.class);
+
+    public enum FsyncPolicy {
+        ALWAYS, INTERVAL, NEVER
+    }
+
+    /**
+     * Receives recovered state. Calls arrive in log order and may repeat.
+     */
+    public interface Replayer {
+        void put(long id, long version, String name, String email);
+
+        void delete(long id);
+    }
+
+    /**
+     * The live store, as seen by the snapshot writer.
+     */
+    public interface SnapshotSource {
+        long nextId();
+
+        void forEachUser(Consumer<? super User> action);
+    }
+
+    private static final int SNAPSHOT_MAGIC = 0x55534e50;
+    // Format 2 wrote strings with writeUTF, which caps them at 64 KB; it is still read
+    private static final int SNAPSHOT_FORMAT = 3;
+    private static final int SNAPSHOT_FORMAT_MODIFIED_UTF8 = 2;
+    private static final byte OP_DELETE = 2;
+    private static final byte OP_PUT = 3;
+    // Each log record is [payload length][payload CRC32][payload]
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final String WAL_PREFIX = "wal-";
+    private static final String WAL_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private final int segmentSize;
+    private final long snapshotThresholdBytes;
+    private final long snapshotIntervalMillis;
+
+    private final Object appendLock = new Object();
+    private final Object forceLock = new Object();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private ScheduledExecutorService scheduler;
+    private SnapshotSource source;
+
+    // Guarded by appendLock
+    private long generation;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long appendedBytes;
+    private long bytesAtLastSnapshot;
+    private long lastSnapshotMillis;
+
+    private volatile long durableBytes;
+    private boolean fresh;
+
+    public UserJournal(@Value("${app.users.journal.dir:./data/users-journal}") String directory,
+                       @Value("${app.users.journal.fsync:interval}") String fsyncPolicy,
+                       @Value("${app.users.journal.fsync-interval-ms:50}") long fsyncIntervalMillis,
+                       @Value("${app.users.journal.segment-size:67108864}") int segmentSize,
+                       @Value("${app.users.journal.snapshot-threshold-bytes:268435456}") long snapshotThresholdBytes,
+                       @Value("${app.users.journal.snapshot-interval-ms:600000}") long snapshotIntervalMillis) {
+        this.directory = Paths.get(directory);
+        this.fsyncPolicy = FsyncPolicy.valueOf(fsyncPolicy.trim().toUpperCase(Locale.ROOT));
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.segmentSize = segmentSize;
+        this.snapshotThresholdBytes = snapshotThresholdBytes;
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+    }
+
+    /**
+     * Replays the newest snapshot and every later log record into
+     * {@code replayer}, then opens a fresh log generation for appends and
+     * starts background flushing and snapshotting.
+     *
+     * @return the next id recorded in the snapshot, or 1 without a snapshot
+     */
+    public long open(Replayer replayer, SnapshotSource source) {
+        this.source = source;
+        long started = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            long snapshotGeneration = latestGeneration(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            List<Long> walGenerations = generations(WAL_PREFIX, WAL_SUFFIX);
+            fresh = snapshotGeneration < 0 && walGenerations.isEmpty();
+            long nextId = 1;
+            long snapshotUsers = 0;
+            if (snapshotGeneration >= 0) {
+                long[] loaded = readSnapshot(file(SNAPSHOT_PREFIX, snapshotGeneration, SNAPSHOT_SUFFIX), replayer);
+                nextId = loaded[0];
+                snapshotUsers = loaded[1];
+            }
+            long replayed = 0;
+            long lastGeneration = Math.max(snapshotGeneration, 0);
+            for (long walGeneration : walGenerations) {
+                if (walGeneration >= snapshotGeneration) {
+                    replayed += replayLog(file(WAL_PREFIX, walGeneration, WAL_SUFFIX), replayer);
+                    lastGeneration = Math.max(lastGeneration, walGeneration);
+                }
+            }
+            synchronized (appendLock) {
+                openSegment(lastGeneration + 1);
+                lastSnapshotMillis = System.currentTimeMillis();
+            }
+            log.info("Recovered {} users from snapshot and {} log records in {} ms",
+                    snapshotUsers, replayed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            startBackgroundTasks();
+            return nextId;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open user journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Whether {@link #open} found neither a snapshot nor a log, so nothing
+     * has ever been stored in this directory.
+     */
+    public boolean isFresh() {
+        return fresh;
+    }
+
+    /**
+     * Appends the full state of {@code user}.
+     *
+     * @return a ticket to pass to {@link #awaitDurable(long)}
+     */
+    public long appendPut(User user) {
+        byte[] name = user.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] email = user.getEmail().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(1 + Long.BYTES * 2 + Integer.BYTES * 2 + name.length + email.length);
+        payload.put(OP_PUT).putLong(user.getId()).putLong(user.getVersion())
+                .putInt(name.length).put(name)
+                .putInt(email.length).put(email);
+        return append(payload.array());
+    }
+
+    /**
+     * Appends the removal of {@code id}.
+     *
+     * @return a ticket to pass to {@link #awaitDurable(long)}
+     */
+    public long appendDelete(long id) {
+        ByteBuffer payload = ByteBuffer.allocate(1 + Long.BYTES);
+        payload.put(OP_DELETE).putLong(id);
+        return append(payload.array());
+    }
+
+    /**
+     * Under the {@code always} policy, blocks until the record behind
+     * {@code ticket} is on disk. Callers should not hold store locks here.
+     */
+    public void awaitDurable(long ticket) {
+        if (fsyncPolicy != FsyncPolicy.ALWAYS || durableBytes >= ticket) {
+            return;
+        }
+        synchronized (forceLock) {
+            // Whoever gets here first forces for everybody queued behind it
+            if (durableBytes < ticket) {
+                force();
+            }
+        }
+    }
+
+    /**
+     * Writes a snapshot of the live store and drops the log generations it
+     * covers. Skipped if another snapshot is already running.
+     */
+    public void snapshot() {
+        if (!snapshotLock.tryLock()) {
+            return;
+        }
+        try {
+            long snapshotGeneration;
+            synchronized (appendLock) {
+                snapshotGeneration = generation + 1;
+                openSegment(snapshotGeneration);
+                bytesAtLastSnapshot = appendedBytes;
+                lastSnapshotMillis = System.currentTimeMillis();
+            }
+            long started = System.nanoTime();
+            long users = writeSnapshot(snapshotGeneration);
+            deleteGenerationsBefore(snapshotGeneration);
+            log.info("Wrote snapshot {} with {} users in {} ms", snapshotGeneration, users,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException e) {
+            log.error("User journal snapshot failed; the log is kept for recovery", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (forceLock) {
+            synchronized (appendLock) {
+                if (channel == null) {
+                    return;
+                }
+                segment.force();
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.warn("Could not close user journal", e);
+                }
+                channel = null;
+            }
+        }
+    }
+
+    private long append(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        int recordLength = RECORD_HEADER_BYTES + payload.length;
+        synchronized (appendLock) {
+            if (channel == null) {
+                throw new IllegalStateException("User journal is not open");
+            }
+            // Keep room for a zero length so readers always find the end
+            if (segment.remaining() < recordLength + Integer.BYTES) {
+                if (recordLength + Integer.BYTES > segmentSize) {
+                    throw new IllegalArgumentException("Journal record of " + recordLength + " bytes exceeds the segment size");
+                }
+                openSegment(generation + 1);
+            }
+            segment.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            appendedBytes += recordLength;
+            return appendedBytes;
+        }
+    }
+
+    // Caller holds forceLock
+    private void force() {
+        MappedByteBuffer target;
+        long upTo;
+        synchronized (appendLock) {
+            if (channel == null) {
+                return;
+            }
+            target = segment;
+            upTo = appendedBytes;
+        }
+        target.force();
+        durableBytes = Math.max(durableBytes, upTo);
+    }
+
+    // Caller holds appendLock
+    private void openSegment(long newGeneration) {
+        try {
+            if (channel != null) {
+                // Everything in the old segment must be durable before it is left behind
+                if (fsyncPolicy != FsyncPolicy.NEVER) {
+                    segment.force();
+                }
+                channel.close();
+            }
+            channel = FileChannel.open(file(WAL_PREFIX, newGeneration, WAL_SUFFIX),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            generation = newGeneration;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open user journal segment " + newGeneration, e);
+        }
+    }
+
+    private void startBackgroundTasks() {
+        AtomicInteger threads = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "user-journal-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            scheduler.scheduleWithFixedDelay(() -> {
+                synchronized (forceLock) {
+                    force();
+                }
+            }, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        scheduler.scheduleWithFixedDelay(() -> {
+            boolean due;
+            synchronized (appendLock) {
+                due = appendedBytes - bytesAtLastSnapshot >= snapshotThresholdBytes
+                        || (appendedBytes > bytesAtLastSnapshot
+                            && System.currentTimeMillis() - lastSnapshotMillis >= snapshotIntervalMillis);
+            }
+            if (due) {
+                snapshot();
+            }
+        }, 1, 1, TimeUnit.SECONDS);
+    }
+
+    private long writeSnapshot(long snapshotGeneration) throws IOException {
+        Path target = file(SNAPSHOT_PREFIX, snapshotGeneration, SNAPSHOT_SUFFIX);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long[] users = {0};
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(out), 1 << 16), new CRC32());
+            DataOutputStream data = new DataOutputStream(checked);
+            data.writeInt(SNAPSHOT_MAGIC);
+            data.writeInt(SNAPSHOT_FORMAT);
+            // Read after the log roll, so every id handed out later is in the new log
+            data.writeLong(source.nextId());
+            try {
+                source.forEachUser(user -> {
+                    try {
+                        data.writeBoolean(true);
+                        data.writeLong(user.getId());
+                        data.writeLong(user.getVersion());
+                        writeString(data, user.getName());
+                        writeString(data, user.getEmail());
+                        users[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            data.writeBoolean(false);
+            long checksum = checked.getChecksum().getValue();
+            data.writeLong(checksum);
+            data.flush();
+            out.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return users[0];
+    }
+
+    private long[] readSnapshot(Path path, Replayer replayer) throws IOException {
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 1 << 16), new CRC32())) {
+            DataInputStream data = new DataInputStream(checked);
+            if (data.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a user snapshot: " + path);
+            }
+            int format = data.readInt();
+            if (format != SNAPSHOT_FORMAT && format != SNAPSHOT_FORMAT_MODIFIED_UTF8) {
+                throw new IOException("Unsupported user snapshot format " + format + ": " + path);
+            }
+            long nextId = data.readLong();
+            long users = 0;
+            while (data.readBoolean()) {
+                long id = data.readLong();
+                long version = data.readLong();
+                if (format == SNAPSHOT_FORMAT) {
+                    replayer.put(id, version, readString(data), readString(data));
+                } else {
+                    replayer.put(id, version, data.readUTF(), data.readUTF());
+                }
+                users++;
+            }
+            long expected = checked.getChecksum().getValue();
+            if (data.readLong() != expected) {
+                throw new IOException("Corrupt user snapshot: " + path);
+            }
+            return new long[] {nextId, users};
+        }
+    }
+
+    private long replayLog(Path path, Replayer replayer) throws IOException {
+        long records = 0;
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer log = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            CRC32 crc = new CRC32();
+            while (log.remaining() >= RECORD_HEADER_BYTES) {
+                int length = log.getInt();
+                int checksum = log.getInt();
+                if (length <= 0 || length > log.remaining()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                log.get(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    // Torn write at the tail of the log
+                    break;
+                }
+                ByteBuffer record = ByteBuffer.wrap(payload);
+                byte op = record.get();
+                long id = record.getLong();
+                if (op == OP_PUT) {
+                    long version = record.getLong();
+                    replayer.put(id, version, readString(record), readString(record));
+                } else if (op == OP_DELETE) {
+                    replayer.delete(id);
+                } else {
+                    throw new IOException("Unknown record type " + op + " in " + path);
+                }
+                records++;
+            }
+        }
+        return records;
+    }
+
+    // Same [length][UTF-8 bytes] layout as the strings in log records
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0) {
+            throw new IOException("Negative string length in user snapshot");
+        }
+        byte[] bytes = new byte[length];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getInt()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void deleteGenerationsBefore(long keepFrom) throws IOException {
+        for (long walGeneration : generations(WAL_PREFIX, WAL_SUFFIX)) {
+            if (walGeneration < keepFrom) {
+                Files.deleteIfExists(file(WAL_PREFIX, walGeneration, WAL_SUFFIX));
+            }
+        }
+        for (long snapshotGeneration : generations(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (snapshotGeneration < keepFrom) {
+                Files.deleteIfExists(file(SNAPSHOT_PREFIX, snapshotGeneration, SNAPSHOT_SUFFIX));
+            }
+        }
+    }
+
+    private long latestGeneration(String prefix, String suffix) throws IOException {
+        List<Long> all = generations(prefix, suffix);
+        return all.isEmpty() ? -1 : all.get(all.size() - 1);
+    }
+
+    private List<Long> generations(String prefix, String suffix) throws IOException {
+        List<Long> result = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> result.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()))));
+        }
+        result.sort(null);
+        return result;
+    }
+
+    private Path file(String prefix, long fileGeneration, String suffix) {
+        return directory.resolve(String.format("%s%016d%s", prefix, fileGeneration, suffix));
+    }
+}
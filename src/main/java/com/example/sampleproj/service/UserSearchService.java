@@ -0,0 +1,361 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Prefix and substring search over user name and email.
+ * <p>
+ * Every field is indexed by its character trigrams and by its first one and
+ * two characters. A query of three or more characters walks the rarest of
+ * its trigrams' posting lists in id order, skips ids missing from any of the
+ * other lists (a binary search each), verifies the rest against the indexed
+ * text and stops at {@code limit} matches. Shorter queries can only be
+ * answered as prefix matches.
+ * <p>
+ * Postings are sorted id arrays published through a volatile field: appends
+ * write past the end readers can see, other changes copy, so queries never
+ * lock. The index follows {@link UserService} through its change listener,
+ * which only queues the event; the store calls it under its write lock, and
+ * the work is done by an indexer thread, or by a query that finds changes
+ * still queued, so a query sees every change published before it started.
+ * Entries left behind by updates and deletes are filtered out at query time
+ * and purged in the background once they pile up.
+ */
+@Service
+public class UserSearchService implements UserChangeListener {
+
+    public static final int MIN_INFIX_LENGTH = 3;
+
+    private static final long PREFIX_KEY = 1L << 62;
+
+    @Autowired
+    private UserService userService;
+
+    // id -> {lower-cased name, lower-cased email}
+    private final Map<Long, String[]> documents = new ConcurrentHashMap<>();
+    private final Map<Long, Posting> postings = new ConcurrentHashMap<>();
+    private final AtomicLong liveEntries = new AtomicLong();
+    private final AtomicLong staleEntries = new AtomicLong();
+    private final AtomicBoolean purgeScheduled = new AtomicBoolean();
+    // Changes in store order; applied by one thread at a time under applyLock
+    private final Queue<UserChangeEvent> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock applyLock = new ReentrantLock();
+    private final AtomicBoolean applyScheduled = new AtomicBoolean();
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService purger = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-search-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void buildIndex() {
+        applyLock.lock();
+        try {
+            // Listen first so nothing written during the initial walk is missed;
+            // changes queued meanwhile are applied after the walk, in order
+            userService.addChangeListener(this);
+            userService.forEachUser(this::index);
+        } finally {
+            applyLock.unlock();
+        }
+        applyPending();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexer.shutdownNow();
+        purger.shutdownNow();
+    }
+
+    @Override
+    public void onUserChange(UserChangeEvent event) {
+        pending.add(event);
+        if (applyScheduled.compareAndSet(false, true)) {
+            indexer.execute(() -> {
+                applyScheduled.set(false);
+                applyPending();
+            });
+        }
+    }
+
+    private void applyPending() {
+        applyLock.lock();
+        try {
+            UserChangeEvent event;
+            while ((event = pending.poll()) != null) {
+                apply(event);
+            }
+        } finally {
+            applyLock.unlock();
+        }
+    }
+
+    private void apply(UserChangeEvent event) {
+        if (event.getType() == UserChangeEvent.Type.DELETED) {
+            String[] removed = documents.remove(event.getUser().getId());
+            if (removed != null) {
+                retire(removed);
+            }
+        } else {
+            index(event.getUser());
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} users, in id order, whose name or email
+     * contains {@code query} (or starts with it, when {@code prefixOnly} is
+     * set or the query is shorter than {@link #MIN_INFIX_LENGTH}). Matching
+     * ignores case.
+     */
+    public List<User> search(String query, boolean prefixOnly, int limit) {
+        String q = query.trim().toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) {
+            return List.of();
+        }
+        boolean prefix = prefixOnly || q.length() < MIN_INFIX_LENGTH;
+        if (!pending.isEmpty()) {
+            applyPending();
+        }
+
+        Ids[] lists = postingsFor(q);
+        if (lists == null) {
+            return List.of();
+        }
+        List<User> results = new ArrayList<>(Math.min(limit, lists[0].size()));
+        Ids rarest = lists[0];
+        for (int i = 0; i < rarest.size() && results.size() < limit; i++) {
+            long id = rarest.ids()[i];
+            if (!inAll(lists, id)) {
+                continue;
+            }
+            String[] document = documents.get(id);
+            if (document != null && matches(document, q, prefix)) {
+                userService.getUserById(id).ifPresent(results::add);
+            }
+        }
+        return results;
+    }
+
+    // Views of the posting lists every match must be in, rarest first, or
+    // null when one of them is empty
+    private Ids[] postingsFor(String q) {
+        if (q.length() < MIN_INFIX_LENGTH) {
+            Posting posting = postings.get(prefixKey(q));
+            return posting != null && posting.view().size() > 0 ? new Ids[] {posting.view()} : null;
+        }
+        Ids[] lists = new Ids[q.length() - MIN_INFIX_LENGTH + 1];
+        for (int i = 0; i < lists.length; i++) {
+            Posting posting = postings.get(trigramKey(q, i));
+            if (posting == null || posting.view().size() == 0) {
+                return null;
+            }
+            lists[i] = posting.view();
+        }
+        Arrays.sort(lists, Comparator.comparingInt(Ids::size));
+        return lists;
+    }
+
+    private static boolean inAll(Ids[] lists, long id) {
+        for (int i = 1; i < lists.length; i++) {
+            if (Arrays.binarySearch(lists[i].ids(), 0, lists[i].size(), id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String[] document, String q, boolean prefix) {
+        for (String field : document) {
+            if (prefix ? field.startsWith(q) : field.contains(q)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void index(User user) {
+        String[] document = {
+            user.getName().toLowerCase(Locale.ROOT),
+            user.getEmail().toLowerCase(Locale.ROOT)
+        };
+        String[] previous = documents.put(user.getId(), document);
+        if (previous != null) {
+            if (Arrays.equals(previous, document)) {
+                return;
+            }
+            retire(previous);
+        }
+        long added = 0;
+        for (String field : document) {
+            for (int length = 1; length < MIN_INFIX_LENGTH && length <= field.length(); length++) {
+                addPosting(prefixKey(field.substring(0, length)), user.getId());
+                added++;
+            }
+            for (int i = 0; i + MIN_INFIX_LENGTH <= field.length(); i++) {
+                addPosting(trigramKey(field, i), user.getId());
+                added++;
+            }
+        }
+        liveEntries.addAndGet(added);
+    }
+
+    private void retire(String[] document) {
+        long entries = 0;
+        for (String field : document) {
+            entries += Math.min(field.length(), MIN_INFIX_LENGTH - 1) + Math.max(0, field.length() - MIN_INFIX_LENGTH + 1);
+        }
+        liveEntries.addAndGet(-entries);
+        if (staleEntries.addAndGet(entries) > Math.max(liveEntries.get(), 100_000) && purgeScheduled.compareAndSet(false, true)) {
+            purger.execute(this::purge);
+        }
+    }
+
+    private void purge() {
+        try {
+            staleEntries.set(0);
+            for (Long key : postings.keySet()) {
+                // compute keeps concurrent appends to this key out while it is filtered
+                postings.computeIfPresent(key, (k, posting) -> {
+                    posting.retainIf(id -> {
+                        String[] document = documents.get(id);
+                        return document != null && containsKey(document, k);
+                    });
+                    return posting.isEmpty() ? null : posting;
+                });
+            }
+        } finally {
+            purgeScheduled.set(false);
+        }
+    }
+
+    private static boolean containsKey(String[] document, long key) {
+        for (String field : document) {
+            if ((key & PREFIX_KEY) != 0) {
+                int length = (int) ((key >>> 32) & 0xFF);
+                if (field.length() >= length && prefixKey(field.substring(0, length)) == key) {
+                    return true;
+                }
+            } else {
+                for (int i = 0; i + MIN_INFIX_LENGTH <= field.length(); i++) {
+                    if (trigramKey(field, i) == key) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void addPosting(long key, long id) {
+        postings.compute(key, (k, posting) -> {
+            Posting target = posting != null ? posting : new Posting();
+            target.add(id);
+            return target;
+        });
+    }
+
+    private static long trigramKey(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private static long prefixKey(String prefix) {
+        long key = PREFIX_KEY | ((long) prefix.length() << 32) | prefix.charAt(0);
+        if (prefix.length() > 1) {
+            key |= (long) prefix.charAt(1) << 16;
+        }
+        return key;
+    }
+
+    /**
+     * The first {@code size} entries of {@code ids}, sorted and duplicate
+     * free. Entries past {@code size} may be written later; those below never
+     * change.
+     */
+    private record Ids(long[] ids, int size) {
+    }
+
+    /**
+     * Sorted, duplicate-free list of user ids for one index key. New users
+     * get increasing ids, so almost every add is an append into spare room
+     * of the current array; inserting a re-indexed older user and purging
+     * build a new array. Writers serialize on the posting, readers only read
+     * {@link #view()}.
+     */
+    private static final class Posting {
+
+        private volatile Ids view = new Ids(new long[4], 0);
+
+        Ids view() {
+            return view;
+        }
+
+        synchronized void add(long id) {
+            long[] ids = view.ids();
+            int size = view.size();
+            if (size == 0 || ids[size - 1] < id) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ids[size] = id;
+                view = new Ids(ids, size + 1);
+                return;
+            }
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                // Still there from before an update, not purged yet
+                return;
+            }
+            index = -index - 1;
+            long[] copy = new long[size == ids.length ? size * 2 : ids.length];
+            System.arraycopy(ids, 0, copy, 0, index);
+            copy[index] = id;
+            System.arraycopy(ids, index, copy, index + 1, size - index);
+            view = new Ids(copy, size + 1);
+        }
+
+        synchronized boolean isEmpty() {
+            return view.size() == 0;
+        }
+
+        synchronized void retainIf(LongPredicate keep) {
+            long[] ids = view.ids();
+            int size = view.size();
+            long[] kept = new long[Math.max(4, size)];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (keep.test(ids[i])) {
+                    kept[count++] = ids[i];
+                }
+            }
+            if (count == size) {
+                return;
+            }
+            view = new Ids(kept.length > 16 && count < kept.length / 4 ? Arrays.copyOf(kept, Math.max(4, count * 2)) : kept, count);
+        }
+    }
+}
@@ -1,63 +1,90 @@
 package com.example.sampleproj.service;
 
 import com.example.sampleproj.model.User;
-import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
-
-@Service
-public class UserService {
-    
-    private final List<User> users = new ArrayList<>();
-    private final AtomicLong idGenerator = new AtomicLong(1);
-    
-    public UserService() {
-        // Initialize with some sample data
-        createUser(new User("John Doe", "john.doe@example.com"));
-        createUser(new User("Jane Smith", "jane.smith@example.com"));
-    }
-    
-    public List<User> getAllUsers() {
-        return new ArrayList<>(users);
-    }
-    
-    public Optional<User> getUserById(Long id) {
-        return users.stream()
-                .filter(user -> user.getId().equals(id))
-                .findFirst();
-    }
-    
-    public Optional<User> getUserByEmail(String email) {
-        return users.stream()
-                .filter(user -> user.getEmail().equals(email))
-                .findFirst();
-    }
-    
-    public User createUser(User user) {
-        user.setId(idGenerator.getAndIncrement());
-        users.add(user);
-        return user;
-    }
-    
-    public Optional<User> updateUser(Long id, User updatedUser) {
-        Optional<User> existingUser = getUserById(id);
-        if (existingUser.isPresent()) {
-            User user = existingUser.get();
-            user.setName(updatedUser.getName());
-            user.setEmail(updatedUser.getEmail());
-            return Optional.of(user);
-        }
-        return Optional.empty();
-    }
-    
-    public boolean deleteUser(Long id) {
-        return users.removeIf(user -> user.getId().equals(id));
-    }
-    
-    public long getUserCount() {
-        return users.size();
+import java.util.function.Consumer;
+
+/**
+ * User store used by the REST API. The implementation is picked with the
+ * {@code app.users.store} property: {@code memory} (default), {@code compact} or
+ * {@code jpa}.
+ */
+public interface UserService {
+
+    List<User> getAllUsers();
+
+    /**
+     * Returns up to {@code limit} users with an id strictly greater than
+     * {@code afterId}, in id order. A {@code null} cursor starts from the
+     * first user.
+     */
+    List<User> getUsersAfter(Long afterId, int limit);
+
+    /**
+     * Walks all users in id order without copying the store, so callers can
+     * stream them out with constant memory.
+     */
+    void forEachUser(Consumer<? super User> action);
+
+    Optional<User> getUserById(Long id);
+
+    Optional<User> getUserByEmail(String email);
+
+    /**
+     * Creates the user. Throws a
+     * {@link org.springframework.dao.DataIntegrityViolationException} when
+     * the email already belongs to another user.
+     */
+    User createUser(User user);
+
+    /**
+     * Claims the user's email and assigns an id in one atomic step. Returns
+     * the created user, or empty when the email already belongs to another
+     * user.
+     */
+    Optional<User> createIfEmailAbsent(User user);
+
+    /**
+     * Inserts a chunk of already validated users in one go. Each email is
+     * claimed atomically, as in {@link #createIfEmailAbsent}. Returns one
+     * entry per user, in order: the created user with its id, or empty when
+     * the email already belongs to another user.
+     */
+    List<Optional<User>> createUsers(List<User> users);
+
+    default Optional<User> updateUser(Long id, User updatedUser) {
+        return updateUser(id, updatedUser, null);
     }
-}
\ No newline at end of file
+
+    /**
+     * Replaces the user's name and email and bumps its version. When
+     * {@code expectedVersion} is set and no longer matches the stored
+     * version, nothing is changed and an
+     * {@link org.springframework.dao.OptimisticLockingFailureException} is
+     * thrown. When the new email belongs to another user, nothing is changed
+     * and a {@link org.springframework.dao.DataIntegrityViolationException}
+     * is thrown.
+     */
+    Optional<User> updateUser(Long id, User updatedUser, Long expectedVersion);
+
+    boolean deleteUser(Long id);
+
+    long getUserCount();
+
+    /**
+     * Returns a number that changes whenever any user is created, updated or
+     * deleted. The in-memory stores count their own changes, starting from a
+     * random value on every start so a version seen before a restart is never
+     * mistaken for a current one. The JPA store derives it from the table, so
+     * every instance sharing the database sees the same version.
+     */
+    long getStoreVersion();
+
+    /**
+     * Registers a listener that is told about every create, update and
+     * delete once it has been applied to the store.
+     */
+    void addChangeListener(UserChangeListener listener);
+}
@@ -0,0 +1,120 @@
+package com.example.sampleproj.benchmark;
+
+import com.example.sampleproj.controller.RoleBasedController;
+import com.example.sampleproj.security.CompiledPreAuthorizeAuthorizationManager;
+import com.example.sampleproj.security.RoleBits;
+import com.example.sampleproj.security.RoleMaskAuthorizationManager;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compares the cost of one authorization check for
+ * {@code RoleBasedController.viewerApi} ({@code hasRole('VIEWER')}) by an
+ * admin who reaches {@code VIEWER} through the role hierarchy: the SpEL
+ * {@code @PreAuthorize} manager and the URL rule's authority comparison
+ * ({@code spel} mode) against their role-mask counterparts ({@code compiled}
+ * mode). The admin's authorities are mapped through the hierarchy as at
+ * login. Not a unit test; run it on its own, for example:
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *     com.example.sampleproj.benchmark.AuthorizationBenchmark 5000000
+ * </pre>
+ * The argument is the number of checks per round; the best of five rounds
+ * is reported.
+ */
+public class AuthorizationBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int checks = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+
+        RoleBits roleBits = RoleBits.of(List.of("ADMIN", "MODERATOR", "VIEWER"), "ADMIN > MODERATOR > VIEWER");
+        Authentication admin = UsernamePasswordAuthenticationToken.authenticated("admin", null,
+                roleBits.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+        Method method = RoleBasedController.class.getMethod("viewerApi");
+        MethodInvocation invocation = invocation(method, new RoleBasedController());
+
+        DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        expressionHandler.setRoleHierarchy(roleBits);
+        PreAuthorizeAuthorizationManager spel = new PreAuthorizeAuthorizationManager();
+        spel.setExpressionHandler(expressionHandler);
+        AuthorityAuthorizationManager<Object> hasRole = AuthorityAuthorizationManager.hasRole("VIEWER");
+        hasRole.setRoleHierarchy(roleBits);
+
+        System.out.printf("%-24s %12s %14s%n", "check", "ns/check", "bytes/check");
+        report("@PreAuthorize spel", spel, invocation, admin, checks);
+        report("@PreAuthorize compiled", new CompiledPreAuthorizeAuthorizationManager(roleBits, spel),
+                invocation, admin, checks);
+        report("url hasRole", hasRole, new Object(), admin, checks);
+        report("url role mask", RoleMaskAuthorizationManager.hasAnyRole(roleBits, "VIEWER"),
+                new Object(), admin, checks);
+    }
+
+    private static <T> void report(String name, AuthorizationManager<? super T> manager, T object,
+                                   Authentication user, int checks) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Supplier<Authentication> authentication = () -> user;
+        double bestNanos = Double.MAX_VALUE;
+        double bestBytes = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long granted = 0;
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < checks; i++) {
+                if (manager.authorize(authentication, object).isGranted()) {
+                    granted++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            if (granted != checks) {
+                throw new IllegalStateException(name + " denied the admin");
+            }
+            bestNanos = Math.min(bestNanos, elapsed / (double) checks);
+            bestBytes = Math.min(bestBytes, allocated / (double) checks);
+        }
+        System.out.printf("%-24s %12.1f %14.1f%n", name, bestNanos, bestBytes);
+    }
+
+    private static MethodInvocation invocation(Method method, Object target) {
+        return new MethodInvocation() {
+            @Override
+            public Method getMethod() {
+                return method;
+            }
+
+            @Override
+            public Object[] getArguments() {
+                return new Object[0];
+            }
+
+            @Override
+            public Object proceed() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Object getThis() {
+                return target;
+            }
+
+            @Override
+            public AccessibleObject getStaticPart() {
+                return method;
+            }
+        };
+    }
+}
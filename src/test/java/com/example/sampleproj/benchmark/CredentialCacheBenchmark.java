@@ -0,0 +1,74 @@
+package com.example.sampleproj.benchmark;
+
+import com.example.sampleproj.security.CachingDaoAuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures form-login throughput through a {@link DaoAuthenticationProvider}
+ * with BCrypt (strength 10, the default), with and without the
+ * {@link CachingDaoAuthenticationProvider} credential cache. Every thread
+ * logs in as one of a handful of users over and over, the way scripted
+ * clients do. Not a unit test; run it on its own, for example:
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *     com.example.sampleproj.benchmark.CredentialCacheBenchmark 8 10
+ * </pre>
+ * Arguments are the thread count and the seconds per run.
+ */
+public class CredentialCacheBenchmark {
+
+    private static final int USERS = 16;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager();
+        for (int i = 0; i < USERS; i++) {
+            users.createUser(User.withUsername("user" + i).password(encoder.encode("password" + i)).roles("VIEWER").build());
+        }
+
+        System.out.printf("%-10s %8s %14s%n", "cache", "threads", "logins/s");
+        for (boolean cached : new boolean[] {false, true}) {
+            DaoAuthenticationProvider provider = cached
+                    ? new CachingDaoAuthenticationProvider(users, Duration.ofMinutes(5), 10_000)
+                    : new DaoAuthenticationProvider(users);
+            provider.setPasswordEncoder(encoder);
+            double rate = run(provider, threads, seconds);
+            System.out.printf("%-10s %8d %14.1f%n", cached ? "on" : "off", threads, rate);
+        }
+    }
+
+    private static double run(DaoAuthenticationProvider provider, int threads, int seconds) throws InterruptedException {
+        LongAdder logins = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            Thread worker = new Thread(() -> {
+                for (int i = offset; System.nanoTime() < deadline; i++) {
+                    int user = i % USERS;
+                    provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user" + user, "password" + user));
+                    logins.increment();
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return logins.sum() / (double) seconds;
+    }
+}
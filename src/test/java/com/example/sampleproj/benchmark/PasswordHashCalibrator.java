@@ -0,0 +1,78 @@
+package com.example.sampleproj.benchmark;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Arrays;
+
+/**
+ * Reports how long one login (one {@code matches} call) takes on this machine
+ * for each supported algorithm over a range of costs, and marks the highest
+ * cost that stays within a latency budget. Use it to pick
+ * {@code app.security.bcrypt.strength}, {@code app.security.argon2.*} and
+ * {@code app.security.pbkdf2.iterations}. Not a unit test; run it on the
+ * target hardware, for example:
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *     com.example.sampleproj.benchmark.PasswordHashCalibrator 100
+ * </pre>
+ * The argument is the per-login budget in milliseconds (default 100).
+ */
+public class PasswordHashCalibrator {
+
+    private static final int WARMUP = 2;
+    private static final int SAMPLES = 5;
+    private static final String PASSWORD = "correct horse battery staple";
+
+    public static void main(String[] args) {
+        double budgetMillis = args.length > 0 ? Double.parseDouble(args[0]) : 100;
+        System.out.printf("Per-login latency (median of %d), budget %.0f ms%n%n", SAMPLES, budgetMillis);
+        System.out.printf("%-8s %-40s %12s%n", "id", "cost", "ms/login");
+
+        String best = null;
+        for (int strength = 8; strength <= 14; strength++) {
+            best = report("bcrypt", "app.security.bcrypt.strength=" + strength,
+                    new BCryptPasswordEncoder(strength), budgetMillis, best);
+        }
+        System.out.println(best != null ? "  -> " + best : "  -> no bcrypt strength fits the budget");
+
+        best = null;
+        for (int memoryKib : new int[] {19456, 47104, 65536}) {
+            for (int iterations : new int[] {1, 2, 3}) {
+                best = report("argon2", "app.security.argon2.memory-kib=" + memoryKib + ", iterations=" + iterations,
+                        new Argon2PasswordEncoder(16, 32, 1, memoryKib, iterations), budgetMillis, best);
+            }
+        }
+        System.out.println(best != null ? "  -> " + best : "  -> no argon2 setting fits the budget");
+
+        best = null;
+        for (int iterations : new int[] {210_000, 310_000, 600_000, 1_000_000}) {
+            best = report("pbkdf2", "app.security.pbkdf2.iterations=" + iterations,
+                    new Pbkdf2PasswordEncoder("", 16, iterations, Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256),
+                    budgetMillis, best);
+        }
+        System.out.println(best != null ? "  -> " + best : "  -> no pbkdf2 iteration count fits the budget");
+    }
+
+    // Returns the cost to recommend so far: the last one within budget
+    private static String report(String id, String cost, PasswordEncoder encoder, double budgetMillis, String best) {
+        String hash = encoder.encode(PASSWORD);
+        for (int i = 0; i < WARMUP; i++) {
+            encoder.matches(PASSWORD, hash);
+        }
+        double[] samples = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            if (!encoder.matches(PASSWORD, hash)) {
+                throw new IllegalStateException(id + " failed to verify its own hash");
+            }
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(samples);
+        double median = samples[SAMPLES / 2];
+        System.out.printf("%-8s %-40s %12.1f%n", id, cost, median);
+        return median <= budgetMillis ? cost : best;
+    }
+}
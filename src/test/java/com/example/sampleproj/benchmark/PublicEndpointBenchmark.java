@@ -0,0 +1,92 @@
+package com.example.sampleproj.benchmark;
+
+import com.example.sampleproj.SampleProjApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures an unauthenticated {@code GET /health}, the way load balancer
+ * probes call it, with the minimal public filter chain and with the
+ * endpoint behind the browser chain as before
+ * ({@code app.security.public-chain.enabled=false}; the probe then gets the
+ * login redirect and a new session every time). Each variant starts the
+ * application on a random port and is called over HTTP from one thread.
+ * Allocation is counted across all threads, client included (threads that
+ * exit during a round are missed), so compare the difference between the
+ * two lines rather than the absolute numbers.
+ * Not a unit test; run it on its own, for example:
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *     com.example.sampleproj.benchmark.PublicEndpointBenchmark 20000
+ * </pre>
+ * The argument is the number of requests per round; the best of five
+ * rounds is reported.
+ */
+public class PublicEndpointBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        // Devtools would relaunch this main method with the application's arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        System.out.printf("%-24s %8s %14s %16s%n", "/health via", "status", "us/request", "bytes/request");
+        report("public chain", true, requests);
+        report("browser chain", false, requests);
+    }
+
+    private static void report(String name, boolean publicChain, int requests) throws Exception {
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(SampleProjApplication.class)
+                        .profiles("test")
+                        // Arguments, not builder properties: application.properties overrides those
+                        .run("--server.port=0", "--logging.level.root=WARN",
+                                "--app.security.public-chain.enabled=" + publicChain)) {
+            HttpClient client = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+            HttpRequest probe = HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + context.getWebServer().getPort() + "/health")).build();
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+            int status = 0;
+            double bestMicros = Double.MAX_VALUE;
+            double bestBytes = Double.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                Map<Long, Long> allocatedBefore = allocatedBytes(threads);
+                long start = System.nanoTime();
+                for (int i = 0; i < requests; i++) {
+                    status = client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode();
+                }
+                long elapsed = System.nanoTime() - start;
+                long allocated = 0;
+                for (Map.Entry<Long, Long> thread : allocatedBytes(threads).entrySet()) {
+                    allocated += thread.getValue() - allocatedBefore.getOrDefault(thread.getKey(), 0L);
+                }
+                bestMicros = Math.min(bestMicros, elapsed / 1_000.0 / requests);
+                bestBytes = Math.min(bestBytes, allocated / (double) requests);
+            }
+            System.out.printf("%-24s %8d %14.1f %16.0f%n", name, status, bestMicros, bestBytes);
+        }
+    }
+
+    // Per thread, so a thread that exits during a round cannot make the total shrink
+    private static Map<Long, Long> allocatedBytes(com.sun.management.ThreadMXBean threads) {
+        long[] ids = threads.getAllThreadIds();
+        long[] allocated = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> byThread = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (allocated[i] >= 0) {
+                byThread.put(ids[i], allocated[i]);
+            }
+        }
+        return byThread;
+    }
+}
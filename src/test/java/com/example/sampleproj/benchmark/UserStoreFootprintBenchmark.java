@@ -0,0 +1,101 @@
+package com.example.sampleproj.benchmark;
+
+import com.example.sampleproj.model.User;
+import com.example.sampleproj.service.CompactUserService;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.ref.Reference;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compares the memory footprint of a plain {@code ArrayList<User>} with the
+ * {@link CompactUserService} storage engine. Not a unit test; run it on its
+ * own with enough heap for the largest count, for example:
+ * <pre>
+ * java -Xmx6g -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *     com.example.sampleproj.benchmark.UserStoreFootprintBenchmark 1000000 10000000
+ * </pre>
+ * ({@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt} writes the
+ * classpath file.) Pass {@code --off-heap} to keep compact records in direct
+ * buffers.
+ */
+public class UserStoreFootprintBenchmark {
+
+    public static void main(String[] args) {
+        boolean offHeap = false;
+        List<Integer> counts = new ArrayList<>();
+        for (String arg : args) {
+            if ("--off-heap".equals(arg)) {
+                offHeap = true;
+            } else {
+                counts.add(Integer.parseInt(arg));
+            }
+        }
+        if (counts.isEmpty()) {
+            counts = List.of(1_000_000, 10_000_000);
+        }
+
+        System.out.printf("%-12s %-10s %14s %14s %12s%n", "store", "users", "heap bytes", "direct bytes", "bytes/user");
+        for (int count : counts) {
+            report("ArrayList", count, () -> {
+                List<User> users = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    User user = new User(name(i), email(i));
+                    user.setId((long) i + 1);
+                    users.add(user);
+                }
+                return users;
+            });
+            boolean direct = offHeap;
+            report(direct ? "compact/off" : "compact", count, () -> {
+                CompactUserService store = new CompactUserService(16 * 1024 * 1024, direct);
+                for (int i = 2; i < count; i++) {
+                    store.createUser(new User(name(i), email(i)));
+                }
+                return store;
+            });
+        }
+    }
+
+    private static void report(String label, int count, Supplier<Object> builder) {
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+        Object store = builder.get();
+        long heap = usedHeap() - heapBefore;
+        long direct = usedDirect() - directBefore;
+        System.out.printf("%-12s %-10d %14d %14d %12.1f%n", label, count, heap, direct, (heap + direct) / (double) count);
+        // Keep the store reachable until it has been measured
+        Reference.reachabilityFence(store);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long usedDirect() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> "direct".equals(pool.getName()))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+
+    private static String name(int i) {
+        return "User Number " + i;
+    }
+
+    private static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+}
@@ -1,12 +1,33 @@
 package com.example.sampleproj.config;
 
+import com.example.sampleproj.security.AuditingAuthenticationManager;
+import com.example.sampleproj.security.IteratedPbkdf2PasswordEncoder;
+import com.example.sampleproj.security.PooledLdapContextSource;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.ldap.DefaultSpringSecurityContextSource;
+import org.springframework.security.oauth2.client.authentication.OAuth2LoginAuthenticationToken;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
+import org.springframework.security.oauth2.client.web.OAuth2LoginAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AbstractAuthenticationProcessingFilter;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
+import org.springframework.security.web.csrf.CsrfFilter;
+import org.springframework.security.web.header.HeaderWriterFilter;
+import org.springframework.security.web.savedrequest.RequestCacheAwareFilter;
+import org.springframework.security.web.session.SessionManagementFilter;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -17,12 +38,37 @@ class SecurityConfigTest {
     @Autowired
     private SecurityConfig securityConfig;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private DefaultSpringSecurityContextSource contextSource;
+
+    @Autowired
+    private LdapTemplate ldapTemplate;
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    @Qualifier("filterChain")
+    private SecurityFilterChain browserChain;
+
+    @Autowired
+    @Qualifier("publicFilterChain")
+    private SecurityFilterChain publicChain;
+
     @Test
     void contextSource_ShouldBeConfigured() {
-        DefaultSpringSecurityContextSource contextSource = securityConfig.contextSource();
         assertThat(contextSource).isNotNull();
     }
 
+    @Test
+    void contextSource_ShouldBeSharedWithLdapTemplate() {
+        assertThat(contextSource).isInstanceOf(PooledLdapContextSource.class);
+        assertThat(ldapTemplate.getContextSource()).isSameAs(contextSource);
+    }
+
     @Test
     void customOAuth2UserService_ShouldBeAutowired() {
         // The CustomOAuth2UserService should be available as a Spring bean
@@ -35,4 +81,59 @@ class SecurityConfigTest {
         SecurityFilterChain filterChain = securityConfig.filterChain(null);
         assertThat(filterChain).isNotNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    void publicChain_ShouldSkipSessionAndSecurityContextFilters() {
+        assertThat(publicChain.getFilters()).noneMatch(filter -> filter instanceof SecurityContextHolderFilter
+                || filter instanceof SessionManagementFilter
+                || filter instanceof CsrfFilter
+                || filter instanceof RequestCacheAwareFilter
+                || filter instanceof AnonymousAuthenticationFilter);
+        assertThat(publicChain.getFilters()).anyMatch(HeaderWriterFilter.class::isInstance);
+    }
+
+    @Test
+    void formLogin_ShouldUseRealmRouter_WhileOAuth2LoginKeepsItsProviders() {
+        assertThat(managerOf(UsernamePasswordAuthenticationFilter.class)).isSameAs(authenticationManager);
+
+        AuthenticationManager oauth2Manager = managerOf(OAuth2LoginAuthenticationFilter.class);
+        assertThat(oauth2Manager).isInstanceOf(AuditingAuthenticationManager.class);
+        ProviderManager oauth2Providers = (ProviderManager) ReflectionTestUtils.getField(oauth2Manager, "delegate");
+        assertThat(oauth2Providers.getProviders())
+                .anyMatch(provider -> provider.supports(OAuth2LoginAuthenticationToken.class));
+    }
+
+    private AuthenticationManager managerOf(Class<? extends AbstractAuthenticationProcessingFilter> filterType) {
+        Object filter = browserChain.getFilters().stream()
+                .filter(filterType::isInstance)
+                .findFirst()
+                .orElseThrow();
+        return (AuthenticationManager) ReflectionTestUtils.getField(filter, "authenticationManager");
+    }
+
+    @Test
+    void passwordEncoder_ShouldEncodeWithConfiguredAlgorithmAndPrefix() {
+        String hash = passwordEncoder.encode("password123");
+
+        assertThat(hash).startsWith("{bcrypt}$2a$10$");
+        assertThat(passwordEncoder.matches("password123", hash)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    void passwordEncoder_ShouldMatchOtherAlgorithmsAndFlagThemForUpgrade() {
+        String weakBcrypt = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("password123");
+        String argon2 = "{argon2}" + new Argon2PasswordEncoder(16, 32, 1, 1024, 1).encode("password123");
+        String unprefixed = new BCryptPasswordEncoder(10).encode("password123");
+        String pbkdf2 = "{pbkdf2@1000}" + IteratedPbkdf2PasswordEncoder.withIterations(1000).encode("password123");
+
+        assertThat(passwordEncoder.matches("password123", weakBcrypt)).isTrue();
+        assertThat(passwordEncoder.matches("password123", argon2)).isTrue();
+        assertThat(passwordEncoder.matches("password123", unprefixed)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(weakBcrypt)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(argon2)).isTrue();
+        assertThat(passwordEncoder.matches("password123", pbkdf2)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(unprefixed)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(pbkdf2)).isTrue();
+    }
+}
@@ -1,25 +1,43 @@
 package com.example.sampleproj.controller;
 
 import com.example.sampleproj.model.User;
+import com.example.sampleproj.service.UserBulkService;
+import com.example.sampleproj.service.UserChangeFeed;
+import com.example.sampleproj.service.UserSearchService;
 import com.example.sampleproj.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+// The slice would otherwise apply Boot's default security and answer every request
+// with a redirect or 403. Access rules are checked against the real filter chain in
+// AuthenticationIntegrationTest, so this slice tests the controller alone.
 @WebMvcTest(UserController.class)
+@AutoConfigureMockMvc(addFilters = false)
 class UserControllerTest {
 
     @Autowired
@@ -28,6 +46,15 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserBulkService userBulkService;
+
+    @MockBean
+    private UserSearchService userSearchService;
+
+    @MockBean
+    private UserChangeFeed userChangeFeed;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -38,14 +65,56 @@ class UserControllerTest {
         User user2 = new User("Jane Smith", "jane@example.com");
         user2.setId(2L);
 
-        when(userService.getAllUsers()).thenReturn(Arrays.asList(user1, user2));
+        when(userService.getUsersAfter(isNull(), anyInt())).thenReturn(Arrays.asList(user1, user2));
 
         mockMvc.perform(get("/api/users"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].name").value("John Doe"))
-                .andExpect(jsonPath("$[1].name").value("Jane Smith"));
+                .andExpect(jsonPath("$[1].name").value("Jane Smith"))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void getAllUsers_WithLimit_ShouldReturnPageAndNextCursor() throws Exception {
+        User user2 = new User("Jane Smith", "jane@example.com");
+        user2.setId(2L);
+        User user3 = new User("Jim Beam", "jim@example.com");
+        user3.setId(3L);
+
+        // The controller asks for one extra user to detect the next page
+        when(userService.getUsersAfter(1L, 2)).thenReturn(Arrays.asList(user2, user3));
+
+        mockMvc.perform(get("/api/users").param("after", "1").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(2))
+                .andExpect(header().string("X-Next-Cursor", "2"));
+    }
+
+    @Test
+    void getAllUsers_WithStream_ShouldWriteAllUsers() throws Exception {
+        User user1 = new User("John Doe", "john@example.com");
+        user1.setId(1L);
+        User user2 = new User("Jane Smith", "jane@example.com");
+        user2.setId(2L);
+
+        doAnswer(invocation -> {
+            Consumer<User> action = invocation.getArgument(0);
+            action.accept(user1);
+            action.accept(user2);
+            return null;
+        }).when(userService).forEachUser(any());
+
+        MvcResult result = mockMvc.perform(get("/api/users").param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].email").value("jane@example.com"));
     }
 
     @Test
@@ -62,6 +131,95 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.email").value("john@example.com"));
     }
 
+    @Test
+    void getAllUsers_WithCurrentETag_ShouldReturnNotModifiedWithoutReadingUsers() throws Exception {
+        when(userService.getStoreVersion()).thenReturn(42L);
+
+        String etag = mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/users").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(userService).getUsersAfter(isNull(), anyInt());
+
+        when(userService.getStoreVersion()).thenReturn(43L);
+
+        mockMvc.perform(get("/api/users").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getUserById_WithCurrentETag_ShouldReturnNotModified() throws Exception {
+        User user = versionedUser(1L, 3L);
+
+        when(userService.getUserById(1L)).thenReturn(Optional.of(user));
+
+        mockMvc.perform(get("/api/users/1").header(HttpHeaders.IF_NONE_MATCH, UserController.etagOf(user)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, UserController.etagOf(user)));
+    }
+
+    @Test
+    void updateUser_WithCurrentIfMatch_ShouldPassExpectedVersion() throws Exception {
+        User current = versionedUser(1L, 3L);
+        User updated = versionedUser(1L, 4L);
+        updated.setName("Johnny Doe");
+
+        when(userService.getUserById(1L)).thenReturn(Optional.of(current));
+        when(userService.updateUser(eq(1L), any(User.class), eq(3L))).thenReturn(Optional.of(updated));
+
+        mockMvc.perform(put("/api/users/1")
+                .header(HttpHeaders.IF_MATCH, UserController.etagOf(current))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new User("Johnny Doe", "john@example.com"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, UserController.etagOf(updated)))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    void updateUser_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        User stale = versionedUser(1L, 2L);
+
+        when(userService.getUserById(1L)).thenReturn(Optional.of(versionedUser(1L, 3L)));
+
+        mockMvc.perform(put("/api/users/1")
+                .header(HttpHeaders.IF_MATCH, UserController.etagOf(stale))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new User("Johnny Doe", "john@example.com"))))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(userService, never()).updateUser(any(), any(), any());
+    }
+
+    @Test
+    void updateUser_WhenModifiedConcurrently_ShouldReturnPreconditionFailed() throws Exception {
+        User current = versionedUser(1L, 3L);
+
+        when(userService.getUserById(1L)).thenReturn(Optional.of(current));
+        when(userService.updateUser(eq(1L), any(User.class), eq(3L)))
+                .thenThrow(new OptimisticLockingFailureException("User 1 has been modified"));
+
+        mockMvc.perform(put("/api/users/1")
+                .header(HttpHeaders.IF_MATCH, UserController.etagOf(current))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new User("Johnny Doe", "john@example.com"))))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateUser_WithAnotherUsersEmail_ShouldReturnConflict() throws Exception {
+        when(userService.updateUser(eq(1L), any(User.class), isNull()))
+                .thenThrow(new DuplicateKeyException("Email already exists: jane@example.com"));
+
+        mockMvc.perform(put("/api/users/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new User("John Doe", "jane@example.com"))))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void getUserById_WhenUserDoesNotExist_ShouldReturn404() throws Exception {
         when(userService.getUserById(1L)).thenReturn(Optional.empty());
@@ -76,8 +234,7 @@ class UserControllerTest {
         User savedUser = new User("John Doe", "john@example.com");
         savedUser.setId(1L);
 
-        when(userService.getUserByEmail("john@example.com")).thenReturn(Optional.empty());
-        when(userService.createUser(any(User.class))).thenReturn(savedUser);
+        when(userService.createIfEmailAbsent(any(User.class))).thenReturn(Optional.of(savedUser));
 
         mockMvc.perform(post("/api/users")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -87,4 +244,50 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.name").value("John Doe"))
                 .andExpect(jsonPath("$.email").value("john@example.com"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void createUser_WithExistingEmail_ShouldReturnConflict() throws Exception {
+        User inputUser = new User("John Doe", "john@example.com");
+
+        when(userService.createIfEmailAbsent(any(User.class))).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(inputUser)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void searchUsers_ShouldDelegateToSearchIndex() throws Exception {
+        User user = new User("John Doe", "john@example.com");
+        user.setId(1L);
+
+        when(userSearchService.search("ohn", false, 20)).thenReturn(Arrays.asList(user));
+
+        mockMvc.perform(get("/api/users/search").param("q", "ohn"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].email").value("john@example.com"));
+    }
+
+    @Test
+    void streamChanges_WhenSubscriberLimitReached_ShouldReturnServiceUnavailable() throws Exception {
+        when(userChangeFeed.subscribe()).thenReturn(null);
+
+        mockMvc.perform(get("/api/users/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void searchUsers_WithBlankQuery_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static User versionedUser(Long id, Long version) {
+        User user = new User("John Doe", "john@example.com");
+        user.setId(id);
+        user.setVersion(version);
+        return user;
+    }
+}
@@ -2,7 +2,7 @@ package com.example.sampleproj.integration;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
@@ -11,17 +11,19 @@ import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
-@AutoConfigureWebMvc
+@AutoConfigureMockMvc
 @ActiveProfiles("test")
 class AuthenticationIntegrationTest {
 
@@ -100,16 +102,41 @@ class AuthenticationIntegrationTest {
     }
 
     @Test
-    void publicEndpoints_ShouldBeAccessibleWithoutAuthentication() throws Exception {
-        // Test H2 console access (allowed for development)
-        mockMvc.perform(get("/h2-console"))
-                .andExpect(status().isOk());
+    void apiEndpoints_WithoutAuthentication_ShouldBeRejected() throws Exception {
+        // UserControllerTest runs without the security filters and relies on this check
+        MvcResult result = mockMvc.perform(get("/api/users")).andReturn();
+
+        assertThat(result.getResponse().getStatus()).isIn(302, 401, 403);
+    }
 
-        // Test login page
+    @Test
+    void publicEndpoints_ShouldBeAccessibleWithoutAuthentication() throws Exception {
+        // The H2 console is disabled in the test profile, so only the login page is checked
         mockMvc.perform(get("/login"))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void probeEndpoints_ShouldBeServedWithoutAuthenticationOrSession() throws Exception {
+        MvcResult result = mockMvc.perform(get("/health"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(result.getRequest().getSession(false)).isNull();
+
+        mockMvc.perform(get("/hello").param("name", "probe"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Hello, probe!"));
+    }
+
+    @Test
+    void hello_ShouldNotServeTheEchoedNameAsHtml() throws Exception {
+        mockMvc.perform(get("/hello").param("name", "<script>alert(1)</script>")
+                        .accept("text/html,application/xhtml+xml,*/*;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/plain"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"));
+    }
+
     private org.springframework.security.core.Authentication createLdapAuthentication() {
         return new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(
             "ldapuser", 
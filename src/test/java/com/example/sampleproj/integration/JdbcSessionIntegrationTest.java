@@ -0,0 +1,63 @@
+package com.example.sampleproj.integration;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "app.session.jdbc.enabled=true",
+        // password123
+        "VIEWER_PASSWORD_HASH={bcrypt}$2a$10$aRj1EgZ80QZ77AhcB2SoHe.LrAvbvLL2UftoUggmTe2OHzZQ5VcMq"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JdbcSessionIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void formLogin_ShouldBeStoredInDatabaseAndOnlyWrittenOnChange() throws Exception {
+        MvcResult login = mockMvc.perform(post("/login")
+                .param("username", "viewer")
+                .param("password", "password123"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/"))
+                .andReturn();
+        Cookie session = login.getResponse().getCookie("SESSION");
+        assertThat(session).isNotNull();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM SPRING_SESSION WHERE PRINCIPAL_NAME = 'viewer'", Integer.class)).isEqualTo(1);
+        Long lastAccess = jdbcTemplate.queryForObject(
+                "SELECT LAST_ACCESS_TIME FROM SPRING_SESSION WHERE PRINCIPAL_NAME = 'viewer'", Long.class);
+
+        mockMvc.perform(get("/secure").cookie(session))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("username", "viewer"));
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT LAST_ACCESS_TIME FROM SPRING_SESSION WHERE PRINCIPAL_NAME = 'viewer'", Long.class))
+                .isEqualTo(lastAccess);
+    }
+
+    @Test
+    void unknownSessionCookie_ShouldRequireLogin() throws Exception {
+        mockMvc.perform(get("/secure").cookie(new Cookie("SESSION", "bm8tc3VjaC1zZXNzaW9u")))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrlPattern("**/login"));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.sampleproj.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "app.security.token.enabled=true",
+        // password123
+        "MODERATOR_PASSWORD_HASH={bcrypt}$2a$10$aRj1EgZ80QZ77AhcB2SoHe.LrAvbvLL2UftoUggmTe2OHzZQ5VcMq"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatelessTokenIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void tokenLogin_ShouldAuthorizeApiCallsWithoutSession() throws Exception {
+        MvcResult login = mockMvc.perform(post("/api/auth/token")
+                .param("username", "moderator")
+                .param("password", "password123"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andExpect(jsonPath("$.token_type").value("Bearer"))
+                .andReturn();
+        assertThat(login.getRequest().getSession(false)).isNull();
+        String token = objectMapper.readTree(login.getResponse().getContentAsString()).get("access_token").asText();
+
+        MvcResult call = mockMvc.perform(get("/moderator/api")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Moderator API - Content management access for user: moderator"))
+                .andReturn();
+        assertThat(call.getRequest().getSession(false)).isNull();
+
+        mockMvc.perform(get("/admin/api")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void tokenLogin_WithWrongPassword_ShouldReturnUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/auth/token")
+                .param("username", "admin")
+                .param("password", "wrong"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void apiCall_WithoutOrWithBadToken_ShouldReturnUnauthorized() throws Exception {
+        mockMvc.perform(get("/viewer/api"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"));
+
+        mockMvc.perform(get("/api/users/count")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not.a.token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void nonApiPages_ShouldStillUseFormLogin() throws Exception {
+        mockMvc.perform(get("/secure"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrlPattern("**/login"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.sampleproj.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcSessionCleanerTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("org/springframework/session/jdbc/schema-h2.sql")
+            .build();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+
+    @AfterEach
+    void shutDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void cleanUp_ShouldDeleteExpiredSessionsAndAttributesInBatches() {
+        for (int i = 0; i < 25; i++) {
+            insertSession("expired-" + i, NOW - 1);
+        }
+        insertSession("live", NOW + 60_000);
+        JdbcSessionCleaner cleaner = new JdbcSessionCleaner(database, "SPRING_SESSION", 10,
+                Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+
+        assertThat(cleaner.cleanUpExpiredSessions()).isEqualTo(25);
+
+        assertThat(jdbcTemplate.queryForList("SELECT TRIM(PRIMARY_ID) FROM SPRING_SESSION", String.class))
+                .containsExactly("live");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM SPRING_SESSION_ATTRIBUTES", Integer.class))
+                .isEqualTo(1);
+        assertThat(cleaner.cleanUpExpiredSessions()).isZero();
+    }
+
+    private void insertSession(String id, long expiryTime) {
+        jdbcTemplate.update("INSERT INTO SPRING_SESSION (PRIMARY_ID, SESSION_ID, CREATION_TIME, LAST_ACCESS_TIME, "
+                + "MAX_INACTIVE_INTERVAL, EXPIRY_TIME, PRINCIPAL_NAME) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                id, id, NOW - 120_000, NOW - 120_000, 60, expiryTime, null);
+        jdbcTemplate.update("INSERT INTO SPRING_SESSION_ATTRIBUTES (SESSION_PRIMARY_ID, ATTRIBUTE_NAME, ATTRIBUTE_BYTES) "
+                + "VALUES (?, ?, ?)", id, "attr", new byte[] {0});
+    }
+}
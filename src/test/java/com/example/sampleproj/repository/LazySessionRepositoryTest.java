@@ -0,0 +1,81 @@
+package com.example.sampleproj.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.session.MapSession;
+import org.springframework.session.MapSessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LazySessionRepositoryTest {
+
+    private final AtomicInteger saves = new AtomicInteger();
+    private final MapSessionRepository sessions = new MapSessionRepository(new ConcurrentHashMap<>()) {
+        @Override
+        public void save(MapSession session) {
+            saves.incrementAndGet();
+            super.save(session);
+        }
+    };
+    private final LazySessionRepository<MapSession> repository = LazySessionRepository.wrap(sessions, Duration.ofSeconds(60));
+
+    @Test
+    void newSession_ShouldBeSavedOnce() {
+        LazySessionRepository.LazySession<MapSession> session = repository.createSession();
+
+        repository.save(session);
+        repository.save(session);
+
+        assertThat(saves).hasValue(1);
+        assertThat(sessions.findById(session.getId())).isNotNull();
+    }
+
+    @Test
+    void readOnlyRequests_ShouldOnlyWriteAfterTouchInterval() {
+        String id = persistedSession();
+        Instant start = sessions.findById(id).getLastAccessedTime();
+
+        LazySessionRepository.LazySession<MapSession> read = repository.findById(id);
+        read.getAttribute("user");
+        read.setLastAccessedTime(start.plusSeconds(30));
+        repository.save(read);
+        assertThat(saves).hasValue(0);
+
+        LazySessionRepository.LazySession<MapSession> later = repository.findById(id);
+        later.setLastAccessedTime(start.plusSeconds(61));
+        repository.save(later);
+        assertThat(saves).hasValue(1);
+        assertThat(sessions.findById(id).getLastAccessedTime()).isEqualTo(start.plusSeconds(61));
+    }
+
+    @Test
+    void attributeChanges_ShouldBeWrittenAtOnce() {
+        String id = persistedSession();
+
+        LazySessionRepository.LazySession<MapSession> session = repository.findById(id);
+        session.setAttribute("user", "admin");
+        repository.save(session);
+        assertThat(sessions.findById(id).<String>getAttribute("user")).isEqualTo("admin");
+
+        LazySessionRepository.LazySession<MapSession> removal = repository.findById(id);
+        removal.removeAttribute("missing");
+        repository.save(removal);
+        assertThat(saves).hasValue(1);
+
+        removal.removeAttribute("user");
+        repository.save(removal);
+        assertThat(saves).hasValue(2);
+        assertThat(sessions.findById(id).getAttributeNames()).isEmpty();
+    }
+
+    private String persistedSession() {
+        LazySessionRepository.LazySession<MapSession> session = repository.createSession();
+        repository.save(session);
+        saves.set(0);
+        return session.getId();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.sampleproj.security;
+
+import com.example.sampleproj.model.AuthAuditEvent;
+import com.example.sampleproj.service.AuthenticationAuditLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditingAuthenticationManagerTest {
+
+    private final List<AuthAuditEvent> events = Collections.synchronizedList(new ArrayList<>());
+    private final AuthenticationAuditLog auditLog = new AuthenticationAuditLog(events::addAll, 64, 16, Duration.ofMillis(10));
+
+    private final AuditingAuthenticationManager manager = new AuditingAuthenticationManager(authentication -> {
+        if (!"password123".equals(authentication.getCredentials())) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(authentication.getName(), null,
+                AuthorityUtils.createAuthorityList("ROLE_VIEWER"));
+    }, auditLog);
+
+    @Test
+    void loginAttempts_ShouldBeRecordedWithOutcomeProviderAndUser() throws Exception {
+        Authentication result = manager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("viewer", "password123"));
+        assertThatThrownBy(() -> manager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("viewer", "wrong")))
+                .isInstanceOf(BadCredentialsException.class);
+        auditLog.close();
+
+        assertThat(result.isAuthenticated()).isTrue();
+        assertThat(events).hasSize(2);
+        AuthAuditEvent success = events.get(0);
+        assertThat(success.outcome()).isEqualTo(AuthAuditEvent.Outcome.SUCCESS);
+        assertThat(success.provider()).isEqualTo("file");
+        assertThat(success.username()).isEqualTo("viewer");
+        assertThat(success.reason()).isNull();
+        AuthAuditEvent failure = events.get(1);
+        assertThat(failure.outcome()).isEqualTo(AuthAuditEvent.Outcome.FAILURE);
+        assertThat(failure.provider()).isEqualTo("password");
+        assertThat(failure.reason()).isEqualTo("BadCredentialsException");
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.sampleproj.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new SlowEncoder(), 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void matches_WhenPoolAndQueueAreFull_ShouldRejectImmediately() throws Exception {
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("secret", "secret"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("secret", "secret"));
+        while (encoder.getQueuedCount() == 0) {
+            Thread.sleep(5);
+        }
+
+        assertThatThrownBy(() -> encoder.matches("secret", "secret"))
+                .isInstanceOf(PasswordHashingRejectedException.class);
+        assertThat(encoder.getRejectedCount()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void failureHandler_ShouldAnswerRejectedLoginsWithServiceUnavailable() throws Exception {
+        LoginFailureHandler handler = new LoginFailureHandler("/login?error", 2);
+        MockHttpServletResponse busy = new MockHttpServletResponse();
+        MockHttpServletResponse wrongPassword = new MockHttpServletResponse();
+
+        handler.onAuthenticationFailure(new MockHttpServletRequest(), busy,
+                new PasswordHashingRejectedException("Too many concurrent logins", null));
+        handler.onAuthenticationFailure(new MockHttpServletRequest(), wrongPassword,
+                new BadCredentialsException("Bad credentials"));
+
+        assertThat(busy.getStatus()).isEqualTo(503);
+        assertThat(busy.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(wrongPassword.getRedirectedUrl()).isEqualTo("/login?error");
+    }
+
+    private class SlowEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.sampleproj.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingDaoAuthenticationProviderTest {
+
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+    private final AtomicInteger hashChecks = new AtomicInteger();
+    private InMemoryUserDetailsManager users;
+    private CachingDaoAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        users = new InMemoryUserDetailsManager(
+                User.withUsername("admin").password(bcrypt.encode("password123")).roles("ADMIN").build());
+        provider = new CachingDaoAuthenticationProvider(users, Duration.ofMinutes(5), 100);
+        provider.setPasswordEncoder(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return bcrypt.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                hashChecks.incrementAndGet();
+                return bcrypt.matches(rawPassword, encodedPassword);
+            }
+        });
+    }
+
+    @Test
+    void repeatLogin_ShouldSkipPasswordHash() {
+        Authentication first = provider.authenticate(login("admin", "password123"));
+        Authentication second = provider.authenticate(login("admin", "password123"));
+
+        assertThat(first.isAuthenticated()).isTrue();
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second.getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
+        assertThat(hashChecks).hasValue(1);
+    }
+
+    @Test
+    void wrongPassword_ShouldFailEveryTimeAndNotBeCached() {
+        provider.authenticate(login("admin", "password123"));
+
+        assertThatThrownBy(() -> provider.authenticate(login("admin", "wrong")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> provider.authenticate(login("admin", "wrong")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThat(hashChecks).hasValue(3);
+    }
+
+    @Test
+    void changedStoredHash_ShouldInvalidateCachedCredentials() {
+        provider.authenticate(login("admin", "password123"));
+
+        users.updateUser(User.withUsername("admin").password(bcrypt.encode("newPassword")).roles("ADMIN").build());
+
+        assertThatThrownBy(() -> provider.authenticate(login("admin", "password123")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThat(provider.authenticate(login("admin", "newPassword")).isAuthenticated()).isTrue();
+        assertThat(hashChecks).hasValue(3);
+    }
+
+    private static UsernamePasswordAuthenticationToken login(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.sampleproj.security;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.interceptor.InMemoryInterceptedSearchRequest;
+import com.unboundid.ldap.listener.interceptor.InMemoryInterceptedSimpleBindRequest;
+import com.unboundid.ldap.listener.interceptor.InMemoryOperationInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.ldap.DefaultSpringSecurityContextSource;
+import org.springframework.security.ldap.authentication.BindAuthenticator;
+import org.springframework.security.ldap.authentication.LdapAuthenticationProvider;
+import org.springframework.security.ldap.search.FilterBasedLdapUserSearch;
+import org.springframework.security.ldap.userdetails.DefaultLdapAuthoritiesPopulator;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingLdapUserSearchTest {
+
+    private final AtomicInteger searches = new AtomicInteger();
+    private final AtomicInteger binds = new AtomicInteger();
+    private InMemoryDirectoryServer server;
+    private CachingLdapUserSearch userSearch;
+    private CachingLdapAuthoritiesPopulator authoritiesPopulator;
+    private LdapAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        InMemoryDirectoryServerConfig config = new InMemoryDirectoryServerConfig("dc=test,dc=com");
+        config.addInMemoryOperationInterceptor(new InMemoryOperationInterceptor() {
+            @Override
+            public void processSearchRequest(InMemoryInterceptedSearchRequest request) {
+                searches.incrementAndGet();
+            }
+
+            @Override
+            public void processSimpleBindRequest(InMemoryInterceptedSimpleBindRequest request) {
+                if (!request.getRequest().getBindDN().isEmpty()) {
+                    binds.incrementAndGet();
+                }
+            }
+        });
+        server = new InMemoryDirectoryServer(config);
+        server.add("dn: dc=test,dc=com", "objectClass: domain", "dc: test");
+        server.add("dn: ou=people,dc=test,dc=com", "objectClass: organizationalUnit", "ou: people");
+        server.add("dn: ou=groups,dc=test,dc=com", "objectClass: organizationalUnit", "ou: groups");
+        server.add("dn: uid=alice,ou=people,dc=test,dc=com", "objectClass: inetOrgPerson",
+                "uid: alice", "cn: Alice", "sn: Smith", "userPassword: alicepw");
+        server.add("dn: cn=admin,ou=groups,dc=test,dc=com", "objectClass: groupOfUniqueNames",
+                "cn: admin", "uniqueMember: uid=alice,ou=people,dc=test,dc=com");
+        server.startListening();
+
+        DefaultSpringSecurityContextSource contextSource = new DefaultSpringSecurityContextSource(
+                "ldap://localhost:" + server.getListenPort() + "/dc=test,dc=com");
+        contextSource.afterPropertiesSet();
+
+        userSearch = new CachingLdapUserSearch(new FilterBasedLdapUserSearch("ou=people", "(uid={0})", contextSource),
+                Duration.ofMinutes(5), Duration.ofMinutes(1), 100);
+        DefaultLdapAuthoritiesPopulator groupSearch = new DefaultLdapAuthoritiesPopulator(contextSource, "ou=groups");
+        groupSearch.setGroupSearchFilter("(uniqueMember={0})");
+        authoritiesPopulator = new CachingLdapAuthoritiesPopulator(groupSearch, Duration.ofMinutes(5), 100);
+
+        BindAuthenticator authenticator = new BindAuthenticator(contextSource);
+        authenticator.setUserSearch(userSearch);
+        provider = new LdapAuthenticationProvider(authenticator, authoritiesPopulator);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.shutDown(true);
+    }
+
+    @Test
+    void repeatLogin_ShouldOnlyBind() {
+        Authentication first = provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("alice", "alicepw"));
+        int searchesAfterFirstLogin = searches.get();
+
+        Authentication second = provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("alice", "alicepw"));
+
+        assertThat(searchesAfterFirstLogin).isEqualTo(2);
+        assertThat(searches.get()).isEqualTo(2);
+        assertThat(binds.get()).isEqualTo(2);
+        assertThat(second.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+        assertThat(second.getAuthorities()).isEqualTo(first.getAuthorities());
+    }
+
+    @Test
+    void wrongPassword_ShouldStillBeCheckedByTheDirectory() {
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("alice", "alicepw"));
+
+        assertThatThrownBy(() -> provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("alice", "wrong")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThat(binds.get()).isEqualTo(2);
+    }
+
+    @Test
+    void unknownUser_ShouldBeCachedAsMissing() {
+        assertThatThrownBy(() -> userSearch.searchForUser("mallory")).isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> userSearch.searchForUser("mallory")).isInstanceOf(UsernameNotFoundException.class);
+
+        assertThat(searches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void clearCache_ShouldSearchAgain() {
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("alice", "alicepw"));
+
+        userSearch.clearCache();
+        authoritiesPopulator.clearCache();
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("alice", "alicepw"));
+
+        assertThat(searches.get()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.sampleproj.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyAuthoritiesMapper;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactSessionSerializerTest {
+
+    private final CompactSessionSerializer serializer = new CompactSessionSerializer(getClass().getClassLoader());
+
+    @Test
+    void usernamePasswordContext_ShouldRoundTripWithoutPassword() {
+        UserDetails user = User.withUsername("admin")
+                .password("{bcrypt}$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ01")
+                .roles("ADMIN", "VIEWER")
+                .build();
+        UsernamePasswordAuthenticationToken token =
+                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+        token.setDetails(new WebAuthenticationDetails("127.0.0.1", "abc"));
+        SecurityContext context = new SecurityContextImpl(token);
+
+        byte[] bytes = serializer.serialize(context);
+        SecurityContext restored = (SecurityContext) serializer.deserialize(bytes);
+
+        assertThat(bytes.length).isLessThan(64);
+        assertThat(bytes.length * 10).isLessThan(new SerializingConverter().convert(context).length);
+        assertThat(new String(bytes)).doesNotContain("$2a$");
+        assertThat(restored.getAuthentication().isAuthenticated()).isTrue();
+        assertThat(restored.getAuthentication().getName()).isEqualTo("admin");
+        assertThat(restored.getAuthentication().getPrincipal()).isInstanceOf(UserDetails.class);
+        assertThat(restored.getAuthentication().getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN", "ROLE_VIEWER");
+    }
+
+    @Test
+    void restoredAuthorities_ShouldBeMappedAgain() {
+        RoleBits roleBits = RoleBits.of(List.of("ADMIN", "MODERATOR", "VIEWER"), "ADMIN > MODERATOR > VIEWER");
+        serializer.setAuthoritiesMapper(new RoleHierarchyAuthoritiesMapper(roleBits));
+        SecurityContext context = new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(
+                "moderator", null, roleBits.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_MODERATOR"))));
+
+        SecurityContext restored = (SecurityContext) serializer.deserialize(serializer.serialize(context));
+
+        assertThat(restored.getAuthentication().getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_MODERATOR", "ROLE_VIEWER");
+        assertThat(restored.getAuthentication().getAuthorities().iterator().next()).isInstanceOf(RoleAuthority.class);
+    }
+
+    @Test
+    void otherAttributes_ShouldFallBackToJavaSerialization() {
+        SecurityContext anonymous = new SecurityContextImpl();
+        List<String> value = List.of("a", "b");
+
+        assertThat(serializer.deserialize(serializer.serialize(value))).isEqualTo(value);
+        assertThat(serializer.deserialize(serializer.serialize(anonymous))).isEqualTo(anonymous);
+    }
+
+    @Test
+    void plainJavaSerializedValues_ShouldStillBeReadable() {
+        SecurityContext context = new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(
+                "viewer", null, AuthorityUtils.createAuthorityList("ROLE_VIEWER")));
+
+        Object restored = serializer.deserialize(new SerializingConverter().convert(context));
+
+        assertThat(restored).isEqualTo(context);
+    }
+}
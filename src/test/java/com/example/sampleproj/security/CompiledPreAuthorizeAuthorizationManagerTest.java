@@ -0,0 +1,118 @@
+package com.example.sampleproj.security;
+
+import com.example.sampleproj.controller.RoleBasedController;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledPreAuthorizeAuthorizationManagerTest {
+
+    private final RoleBits roleBits = RoleBits.of(List.of("ADMIN", "MODERATOR", "VIEWER"), "ADMIN > MODERATOR > VIEWER");
+    private final AtomicInteger fallbackCalls = new AtomicInteger();
+    private final AuthorizationManager<MethodInvocation> fallback = (authentication, invocation) -> {
+        fallbackCalls.incrementAndGet();
+        return new AuthorizationDecision(true);
+    };
+    private final CompiledPreAuthorizeAuthorizationManager manager =
+            new CompiledPreAuthorizeAuthorizationManager(roleBits, fallback);
+
+    @Test
+    void compile_ShouldAcceptPlainRoleChecks() {
+        assertThat(manager.compile("hasRole('ADMIN')")).isEqualTo(roleBits.maskOfRoles("ADMIN"));
+        assertThat(manager.compile("hasAnyRole('ADMIN', 'MODERATOR')")).isEqualTo(roleBits.maskOfRoles("ADMIN", "MODERATOR"));
+        assertThat(manager.compile("hasAuthority('ROLE_VIEWER') or hasRole('ROLE_MODERATOR')"))
+                .isEqualTo(roleBits.maskOfRoles("VIEWER", "MODERATOR"));
+    }
+
+    @Test
+    void compile_ShouldLeaveEverythingElseToSpel() {
+        assertThat(manager.compile("hasRole('ADMIN') and hasRole('VIEWER')")).isNull();
+        assertThat(manager.compile("isAuthenticated()")).isNull();
+        assertThat(manager.compile("hasRole('AUDITOR')")).isNull();
+        assertThat(manager.compile("hasAuthority('ADMIN')")).isNull();
+        assertThat(manager.compile("#id == authentication.name")).isNull();
+    }
+
+    @Test
+    void controllerMethods_ShouldBeCheckedByRoleMask() throws Exception {
+        Authentication moderator = new TestingAuthenticationToken("m", null, "ROLE_MODERATOR");
+
+        assertThat(granted("adminApi", moderator)).isFalse();
+        assertThat(granted("moderatorApi", moderator)).isTrue();
+        assertThat(granted("viewerApi", moderator)).isTrue();
+        assertThat(granted("viewerApi", new TestingAuthenticationToken("x", null, "SCOPE_email"))).isFalse();
+        assertThat(granted("viewerApi", new TestingAuthenticationToken("a", null, "ROLE_ADMIN"))).isTrue();
+        assertThat(fallbackCalls).hasValue(0);
+    }
+
+    @Test
+    void precompile_ShouldCompileEveryGuardedMethodUpFront() throws Exception {
+        manager.precompile(RoleBasedController.class);
+        int compiled = manager.getCompiledCount();
+
+        assertThat(compiled).isPositive();
+        assertThat(granted("adminApi", new TestingAuthenticationToken("a", null, "ROLE_ADMIN"))).isTrue();
+        assertThat(manager.getCompiledCount()).isEqualTo(compiled);
+    }
+
+    @Test
+    void nonRoleExpression_ShouldUseFallback() throws Exception {
+        Method method = Guarded.class.getMethod("ownData", String.class);
+
+        assertThat(manager.authorize(() -> null, invocation(method, new Guarded())).isGranted()).isTrue();
+        assertThat(fallbackCalls).hasValue(1);
+    }
+
+    private boolean granted(String methodName, Authentication authentication) throws Exception {
+        Method method = RoleBasedController.class.getMethod(methodName);
+        return manager.authorize(() -> authentication, invocation(method, new RoleBasedController())).isGranted();
+    }
+
+    private static MethodInvocation invocation(Method method, Object target) {
+        return new MethodInvocation() {
+            @Override
+            public Method getMethod() {
+                return method;
+            }
+
+            @Override
+            public Object[] getArguments() {
+                return new Object[method.getParameterCount()];
+            }
+
+            @Override
+            public Object proceed() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Object getThis() {
+                return target;
+            }
+
+            @Override
+            public AccessibleObject getStaticPart() {
+                return method;
+            }
+        };
+    }
+
+    static class Guarded {
+
+        @PreAuthorize("#username == authentication.name")
+        public String ownData(String username) {
+            return username;
+        }
+    }
+}
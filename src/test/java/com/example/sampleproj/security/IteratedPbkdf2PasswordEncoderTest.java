@@ -0,0 +1,63 @@
+package com.example.sampleproj.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IteratedPbkdf2PasswordEncoderTest {
+
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+
+    // Configured for 2000 iterations, as SecurityConfig builds it
+    private final DelegatingPasswordEncoder encoder = delegating(2000);
+
+    @Test
+    void encode_ShouldRecordTheIterationCountInTheId() {
+        String hash = encoder.encode("password123");
+
+        assertThat(hash).startsWith("{pbkdf2@2000}");
+        assertThat(encoder.matches("password123", hash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    void matches_AfterTheIterationCountChanged_ShouldAcceptOldHashesAndFlagThemForUpgrade() {
+        String oldHash = delegating(1000).encode("password123");
+
+        assertThat(oldHash).startsWith("{pbkdf2@1000}");
+        assertThat(encoder.matches("password123", oldHash)).isTrue();
+        assertThat(encoder.matches("wrong", oldHash)).isFalse();
+        assertThat(encoder.upgradeEncoding(oldHash)).isTrue();
+    }
+
+    @Test
+    void matches_WithoutPrefix_ShouldFallBackToBcrypt() {
+        assertThat(encoder.matches("password123", bcrypt.encode("password123"))).isTrue();
+    }
+
+    @Test
+    void matches_WithMalformedOrUnknownId_ShouldReject() {
+        String hash = IteratedPbkdf2PasswordEncoder.withIterations(1000).encode("password123");
+
+        assertThat(encoder.matches("password123", "{pbkdf2@}" + hash)).isFalse();
+        assertThat(encoder.matches("password123", "{pbkdf2@x}" + hash)).isFalse();
+        assertThat(encoder.matches("password123", "{pbkdf2@0}" + hash)).isFalse();
+        assertThat(encoder.matches("password123", "{pbkdf2@999999999}" + hash)).isFalse();
+        assertThat(encoder.matches("password123", "{md5}" + hash)).isFalse();
+    }
+
+    private DelegatingPasswordEncoder delegating(int iterations) {
+        String id = IteratedPbkdf2PasswordEncoder.id(iterations);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                id, IteratedPbkdf2PasswordEncoder.withIterations(iterations));
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(id, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(new IteratedPbkdf2PasswordEncoder(bcrypt));
+        return delegating;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.sampleproj.security;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.interceptor.InMemoryInterceptedSimpleBindRequest;
+import com.unboundid.ldap.listener.interceptor.InMemoryOperationInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.ldap.pool2.factory.PoolConfig;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.ldap.authentication.BindAuthenticator;
+import org.springframework.security.ldap.search.FilterBasedLdapUserSearch;
+
+import javax.naming.directory.Attributes;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PooledLdapContextSourceTest {
+
+    private static final String MANAGER_DN = "cn=manager,dc=test,dc=com";
+
+    private final AtomicInteger managerBinds = new AtomicInteger();
+    private InMemoryDirectoryServer server;
+    private PooledLdapContextSource contextSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        InMemoryDirectoryServerConfig config = new InMemoryDirectoryServerConfig("dc=test,dc=com");
+        config.addAdditionalBindCredentials(MANAGER_DN, "secret");
+        config.addInMemoryOperationInterceptor(new InMemoryOperationInterceptor() {
+            @Override
+            public void processSimpleBindRequest(InMemoryInterceptedSimpleBindRequest request) {
+                if (MANAGER_DN.equalsIgnoreCase(request.getRequest().getBindDN())) {
+                    managerBinds.incrementAndGet();
+                }
+            }
+        });
+        server = new InMemoryDirectoryServer(config);
+        server.add("dn: dc=test,dc=com", "objectClass: domain", "dc: test");
+        server.add("dn: ou=people,dc=test,dc=com", "objectClass: organizationalUnit", "ou: people");
+        server.add("dn: uid=alice,ou=people,dc=test,dc=com", "objectClass: inetOrgPerson",
+                "uid: alice", "cn: Alice", "sn: Smith", "userPassword: alicepw");
+        server.startListening();
+
+        PoolConfig poolConfig = new PoolConfig();
+        poolConfig.setMaxTotalPerKey(4);
+        poolConfig.setTestOnBorrow(true);
+        poolConfig.setJmxEnabled(false);
+        contextSource = new PooledLdapContextSource(
+                "ldap://localhost:" + server.getListenPort() + "/dc=test,dc=com", poolConfig);
+        contextSource.setUserDn(MANAGER_DN);
+        contextSource.setPassword("secret");
+        contextSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        contextSource.destroy();
+        server.shutDown(true);
+    }
+
+    @Test
+    void searches_ShouldReuseOnePooledConnection() {
+        LdapTemplate template = new LdapTemplate(contextSource);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(template.search("ou=people", "(uid=alice)", (Attributes attributes) -> attributes.get("cn").get()))
+                    .containsExactly("Alice");
+        }
+
+        assertThat(managerBinds.get()).isEqualTo(1);
+        assertThat(contextSource.getNumActive()).isZero();
+        assertThat(contextSource.getNumIdle()).isEqualTo(1);
+    }
+
+    @Test
+    void login_ShouldBindAsUserOutsideThePool() {
+        BindAuthenticator authenticator = new BindAuthenticator(contextSource);
+        authenticator.setUserSearch(new FilterBasedLdapUserSearch("ou=people", "(uid={0})", contextSource));
+
+        assertThat(authenticator.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("alice", "alicepw")).getDn().toString())
+                .isEqualTo("uid=alice,ou=people");
+        assertThatThrownBy(() -> authenticator.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("alice", "wrong")))
+                .isInstanceOf(BadCredentialsException.class);
+
+        authenticator.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("alice", "alicepw"));
+        // Only the search connection was pooled; user binds never end up in it
+        assertThat(managerBinds.get()).isEqualTo(1);
+        assertThat(contextSource.getNumIdle()).isEqualTo(1);
+    }
+
+    @Test
+    void brokenConnection_ShouldBeReplacedOnBorrow() {
+        LdapTemplate template = new LdapTemplate(contextSource);
+        template.lookup("uid=alice,ou=people");
+
+        server.closeAllConnections(false);
+
+        assertThat(template.lookup("uid=alice,ou=people", (Attributes attributes) -> attributes.get("uid").get()))
+                .isEqualTo("alice");
+        assertThat(managerBinds.get()).isEqualTo(2);
+    }
+}
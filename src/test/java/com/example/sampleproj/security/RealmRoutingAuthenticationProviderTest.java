@@ -0,0 +1,101 @@
+package com.example.sampleproj.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RealmRoutingAuthenticationProviderTest {
+
+    private final Set<String> fileUsers = Set.of("admin", "shared@corp.example.com");
+    private final RecordingProvider file = new RecordingProvider("password123");
+    private final RecordingProvider ldap = new RecordingProvider("ldappw");
+
+    @Test
+    void knownFileUser_ShouldOnlyTryFileRealm() {
+        RealmRoutingAuthenticationProvider router = router(null);
+
+        assertThat(router.authenticate(login("admin", "password123")).isAuthenticated()).isTrue();
+        assertThatThrownBy(() -> router.authenticate(login("admin", "ldappw")))
+                .isInstanceOf(BadCredentialsException.class);
+
+        assertThat(file.attempts).containsExactly("admin", "admin");
+        assertThat(ldap.attempts).isEmpty();
+    }
+
+    @Test
+    void otherUser_WithoutPattern_ShouldGoStraightToDirectory() {
+        RealmRoutingAuthenticationProvider router = router(null);
+
+        assertThat(router.authenticate(login("alice", "ldappw")).isAuthenticated()).isTrue();
+
+        assertThat(file.attempts).isEmpty();
+        assertThat(ldap.attempts).containsExactly("alice");
+    }
+
+    @Test
+    void userOutsideEveryRealm_ShouldBeRejectedWithoutLookup() {
+        RealmRoutingAuthenticationProvider router = router(Pattern.compile(".+@corp\\.example\\.com"));
+
+        assertThatThrownBy(() -> router.authenticate(login("alice", "ldappw")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThat(router.authenticate(login("alice@corp.example.com", "ldappw")).isAuthenticated()).isTrue();
+
+        assertThat(file.attempts).isEmpty();
+        assertThat(ldap.attempts).containsExactly("alice@corp.example.com");
+    }
+
+    @Test
+    void ambiguousUser_ShouldFallThroughOnlyOnBadCredentials() {
+        RealmRoutingAuthenticationProvider router = router(Pattern.compile(".+@corp\\.example\\.com"));
+
+        router.authenticate(login("shared@corp.example.com", "password123"));
+        assertThat(ldap.attempts).isEmpty();
+
+        router.authenticate(login("shared@corp.example.com", "ldappw"));
+        assertThat(file.attempts).hasSize(2);
+        assertThat(ldap.attempts).containsExactly("shared@corp.example.com");
+    }
+
+    private RealmRoutingAuthenticationProvider router(Pattern ldapUsernames) {
+        return new RealmRoutingAuthenticationProvider(fileUsers::contains, file, ldapUsernames, ldap);
+    }
+
+    private static Authentication login(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+
+    private static class RecordingProvider implements AuthenticationProvider {
+
+        private final String password;
+        private final List<String> attempts = new ArrayList<>();
+
+        RecordingProvider(String password) {
+            this.password = password;
+        }
+
+        @Override
+        public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+            attempts.add(authentication.getName());
+            if (!password.equals(authentication.getCredentials())) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            return UsernamePasswordAuthenticationToken.authenticated(authentication.getName(), null, List.of());
+        }
+
+        @Override
+        public boolean supports(Class<?> authentication) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.sampleproj.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RoleBitsTest {
+
+    private final RoleBits roleBits = RoleBits.of(List.of("ADMIN", "MODERATOR", "VIEWER", "AUDITOR"),
+            "ADMIN > MODERATOR > VIEWER; ADMIN > AUDITOR");
+
+    @Test
+    void expand_ShouldFollowTheHierarchyTransitively() {
+        assertThat(roleBits.expand(roleBits.maskOfRoles("ADMIN")))
+                .isEqualTo(roleBits.maskOfRoles("ADMIN", "MODERATOR", "VIEWER", "AUDITOR"));
+        assertThat(roleBits.expand(roleBits.maskOfRoles("MODERATOR")))
+                .isEqualTo(roleBits.maskOfRoles("MODERATOR", "VIEWER"));
+        assertThat(roleBits.expand(roleBits.maskOfRoles("AUDITOR"))).isEqualTo(roleBits.maskOfRoles("AUDITOR"));
+    }
+
+    @Test
+    void reachableAuthorities_ShouldCarryTheExpandedMask() {
+        Collection<? extends GrantedAuthority> mapped = roleBits.getReachableGrantedAuthorities(
+                AuthorityUtils.createAuthorityList("SCOPE_email", "ROLE_MODERATOR"));
+        List<GrantedAuthority> authorities = new ArrayList<>(mapped);
+
+        assertThat(authorities).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_MODERATOR", "ROLE_VIEWER", "SCOPE_email");
+        assertThat(authorities.get(0)).isInstanceOf(RoleAuthority.class);
+        assertThat(((RoleAuthority) authorities.get(0)).getRoleMask())
+                .isEqualTo(roleBits.maskOfRoles("MODERATOR", "VIEWER"));
+        assertThat(roleBits.maskOf(authorities)).isEqualTo(roleBits.maskOfRoles("MODERATOR", "VIEWER"));
+    }
+
+    @Test
+    void unmappedAuthorities_ShouldStillBeExpanded() {
+        assertThat(roleBits.maskOf(AuthorityUtils.createAuthorityList("ROLE_ADMIN")))
+                .isEqualTo(roleBits.maskOfRoles("ADMIN", "MODERATOR", "VIEWER", "AUDITOR"));
+        assertThat(roleBits.maskOf(AuthorityUtils.createAuthorityList("ROLE_USER"))).isZero();
+    }
+
+    @Test
+    void invalidHierarchy_ShouldFailWhenBuilt() {
+        assertThatThrownBy(() -> RoleBits.of(List.of("ADMIN", "VIEWER"), "ADMIN > GUEST"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RoleBits.of(List.of("ADMIN", "MODERATOR", "VIEWER"),
+                "ADMIN > MODERATOR > VIEWER\nVIEWER > ADMIN"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.sampleproj.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RoleMaskAuthorizationManagerTest {
+
+    private final RoleBits roleBits = RoleBits.of("ADMIN", "MODERATOR", "VIEWER");
+
+    @Test
+    void maskOf_ShouldIgnoreAuthoritiesWithoutABit() {
+        Authentication user = new TestingAuthenticationToken("jane", null, "ROLE_VIEWER", "SCOPE_email", "ROLE_MODERATOR");
+
+        assertThat(roleBits.maskOf(user.getAuthorities())).isEqualTo(roleBits.maskOfRoles("MODERATOR", "VIEWER"));
+        assertThat(roleBits.maskOfRoles("ROLE_ADMIN")).isEqualTo(roleBits.maskOfRoles("ADMIN"));
+    }
+
+    @Test
+    void unknownRole_ShouldFailWhenBuilt() {
+        assertThatThrownBy(() -> RoleMaskAuthorizationManager.hasAnyRole(roleBits, "AUDITOR"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RoleBits.of("ADMIN", "ADMIN"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void check_ShouldGrantAnyOfTheRequiredRoles() {
+        RoleMaskAuthorizationManager<Object> moderatorArea =
+                RoleMaskAuthorizationManager.hasAnyRole(roleBits, "ADMIN", "MODERATOR");
+
+        assertThat(granted(moderatorArea, new TestingAuthenticationToken("a", null, "ROLE_ADMIN"))).isTrue();
+        assertThat(granted(moderatorArea, new TestingAuthenticationToken("m", null, "ROLE_MODERATOR"))).isTrue();
+        assertThat(granted(moderatorArea, new TestingAuthenticationToken("v", null, "ROLE_VIEWER"))).isFalse();
+        assertThat(granted(moderatorArea, new TestingAuthenticationToken("x", null, "MODERATOR"))).isFalse();
+        assertThat(granted(moderatorArea, null)).isFalse();
+    }
+
+    private static boolean granted(RoleMaskAuthorizationManager<Object> manager, Authentication authentication) {
+        return manager.authorize(() -> authentication, new Object()).isGranted();
+    }
+}
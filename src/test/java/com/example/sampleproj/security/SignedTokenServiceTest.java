@@ -0,0 +1,90 @@
+package com.example.sampleproj.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyAuthoritiesMapper;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SignedTokenServiceTest {
+
+    private final byte[] secret = "0123456789abcdef0123456789abcdef".getBytes();
+    private final SignedTokenService tokens = new SignedTokenService(secret, Duration.ofMinutes(15));
+
+    @Test
+    void issuedToken_ShouldVerifyToSameUserAndRoles() {
+        String token = tokens.issue(user("admin", "ROLE_ADMIN", "ROLE_VIEWER"));
+
+        Authentication authentication = tokens.verify(token);
+
+        assertThat(authentication.isAuthenticated()).isTrue();
+        assertThat(authentication.getName()).isEqualTo("admin");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN", "ROLE_VIEWER");
+    }
+
+    @Test
+    void verifiedRoles_ShouldGoThroughAuthoritiesMapper() {
+        RoleBits roleBits = RoleBits.of(List.of("ADMIN", "VIEWER"), "ADMIN > VIEWER");
+        tokens.setAuthoritiesMapper(new RoleHierarchyAuthoritiesMapper(roleBits));
+
+        Authentication authentication = tokens.verify(tokens.issue(user("admin", "ROLE_ADMIN")));
+
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN", "ROLE_VIEWER");
+        assertThat(roleBits.maskOf(authentication.getAuthorities())).isEqualTo(roleBits.maskOfRoles("ADMIN", "VIEWER"));
+    }
+
+    @Test
+    void tamperedToken_ShouldBeRejected() {
+        String[] parts = tokens.issue(user("viewer", "ROLE_VIEWER")).split("\\.");
+        String forgedClaims = tokens.issue(user("viewer", "ROLE_ADMIN")).split("\\.")[1];
+
+        assertThatThrownBy(() -> tokens.verify(parts[0] + "." + forgedClaims + "." + parts[2]))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> tokens.verify("eyJhbGciOiJub25lIn0." + parts[1] + "."))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> tokens.verify("garbage"))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void tokenFromOtherSecret_ShouldBeRejected() {
+        byte[] otherSecret = Arrays.copyOf(secret, secret.length);
+        otherSecret[0] ^= 1;
+        String token = new SignedTokenService(otherSecret, Duration.ofMinutes(15)).issue(user("admin", "ROLE_ADMIN"));
+
+        assertThatThrownBy(() -> tokens.verify(token)).isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void expiredToken_ShouldBeRejected() {
+        String token = tokens.issue(user("admin", "ROLE_ADMIN"));
+        SignedTokenService later = new SignedTokenService(secret, Duration.ofMinutes(15),
+                Clock.offset(Clock.systemUTC(), Duration.ofMinutes(16)));
+
+        assertThatThrownBy(() -> later.verify(token))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Token expired");
+    }
+
+    @Test
+    void shortSecret_ShouldBeRefused() {
+        assertThatThrownBy(() -> new SignedTokenService(new byte[16], Duration.ofMinutes(15)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Authentication user(String username, String... roles) {
+        return UsernamePasswordAuthenticationToken.authenticated(username, null, AuthorityUtils.createAuthorityList(roles));
+    }
+}
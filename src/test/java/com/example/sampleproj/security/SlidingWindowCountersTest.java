@@ -0,0 +1,116 @@
+package com.example.sampleproj.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCountersTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final SlidingWindowCounters counters =
+            new SlidingWindowCounters(Duration.ofSeconds(60), 1024, 5, 42L, now::get);
+
+    @Test
+    void increment_ShouldCountPerKeyIgnoringCase() {
+        counters.increment("alice");
+        counters.increment("Alice");
+        counters.increment("bob");
+
+        assertThat(counters.count("ALICE")).isEqualTo(2);
+        assertThat(counters.count("bob")).isEqualTo(1);
+        assertThat(counters.count("carol")).isZero();
+    }
+
+    @Test
+    void previousWindow_ShouldFadeOutAsTheWindowSlides() {
+        now.set(60_000L * 1000);
+        for (int i = 0; i < 10; i++) {
+            counters.increment("alice");
+        }
+
+        now.addAndGet(60_000 + 15_000);
+        assertThat(counters.count("alice")).isEqualTo(7);
+        now.addAndGet(30_000);
+        assertThat(counters.count("alice")).isEqualTo(2);
+        assertThat(counters.increment("alice")).isEqualTo(3);
+        now.addAndGet(120_000);
+        assertThat(counters.count("alice")).isZero();
+    }
+
+    @Test
+    void reset_ShouldForgetTheKeyOnly() {
+        counters.increment("alice");
+        counters.increment("bob");
+
+        counters.reset("alice");
+
+        assertThat(counters.count("alice")).isZero();
+        assertThat(counters.count("bob")).isEqualTo(1);
+    }
+
+    @Test
+    void decrement_ShouldTakeBackOneEventAndStopAtZero() {
+        counters.increment("alice");
+        counters.increment("alice");
+
+        counters.decrement("alice");
+        assertThat(counters.count("alice")).isEqualTo(1);
+        counters.decrement("alice");
+        counters.decrement("alice");
+        assertThat(counters.count("alice")).isZero();
+        counters.decrement("bob");
+        assertThat(counters.count("bob")).isZero();
+    }
+
+    @Test
+    void floodOfKeys_ShouldKeepTheBusiestOnes() {
+        for (int i = 0; i < 50; i++) {
+            counters.increment("victim");
+        }
+        for (int i = 0; i < 100_000; i++) {
+            counters.increment("spray-" + i);
+        }
+
+        assertThat(counters.count("victim")).isEqualTo(50);
+    }
+
+    @Test
+    void floodOfKeysAtTheProtectedCount_ShouldNotEvictAKeyUnderAttack() {
+        for (int i = 0; i < 5; i++) {
+            counters.increment("victim");
+        }
+        for (int i = 0; i < 10_000; i++) {
+            for (int j = 0; j < 5; j++) {
+                counters.increment("spray-" + i);
+            }
+        }
+
+        assertThat(counters.count("victim")).isEqualTo(5);
+        now.addAndGet(120_000);
+        assertThat(counters.increment("newcomer")).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentIncrements_ShouldAllBeCounted() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    counters.increment("shared");
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(counters.count("shared")).isEqualTo(2000);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.sampleproj.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ThrottlingAuthenticationProviderTest {
+
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final AuthenticationProvider realm = new AuthenticationProvider() {
+        @Override
+        public Authentication authenticate(Authentication authentication) {
+            attempts.incrementAndGet();
+            if (authentication.getName().equals("busy")) {
+                throw new PasswordHashingRejectedException("Too many concurrent logins", null);
+            }
+            if (!"secret".equals(authentication.getCredentials())) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            return UsernamePasswordAuthenticationToken.authenticated(authentication.getName(), null,
+                    AuthorityUtils.createAuthorityList("ROLE_VIEWER"));
+        }
+
+        @Override
+        public boolean supports(Class<?> authentication) {
+            return true;
+        }
+    };
+    private final ThrottlingAuthenticationProvider provider = new ThrottlingAuthenticationProvider(realm,
+            new LoginThrottle(Duration.ofMinutes(5), 3, 5, 1024));
+
+    @Test
+    void userOverLimit_ShouldBeRejectedWithoutCheckingCredentials() {
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> provider.authenticate(login("alice", "guess", "10.0.0.1")))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+
+        assertThatThrownBy(() -> provider.authenticate(login("alice", "secret", "10.0.0.2")))
+                .isInstanceOf(LoginThrottledException.class);
+        assertThat(attempts).hasValue(3);
+        assertThat(provider.authenticate(login("bob", "secret", "10.0.0.2")).isAuthenticated()).isTrue();
+    }
+
+    @Test
+    void addressOverLimit_ShouldBeRejectedForEveryUser() {
+        for (int i = 0; i < 5; i++) {
+            String username = "user" + i;
+            assertThatThrownBy(() -> provider.authenticate(login(username, "guess", "10.0.0.9")))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+
+        assertThatThrownBy(() -> provider.authenticate(login("bob", "secret", "10.0.0.9")))
+                .isInstanceOf(LoginThrottledException.class);
+        assertThat(provider.authenticate(login("bob", "secret", null)).isAuthenticated()).isTrue();
+    }
+
+    @Test
+    void addressLimitOfZero_ShouldNotThrottleByAddress() {
+        ThrottlingAuthenticationProvider noAddressLimit = new ThrottlingAuthenticationProvider(realm,
+                new LoginThrottle(Duration.ofMinutes(5), 3, 0, 1024));
+        for (int i = 0; i < 10; i++) {
+            String username = "user" + i;
+            assertThatThrownBy(() -> noAddressLimit.authenticate(login(username, "guess", "10.0.0.9")))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+
+        assertThat(noAddressLimit.authenticate(login("bob", "secret", "10.0.0.9")).isAuthenticated()).isTrue();
+    }
+
+    @Test
+    void successfulLogin_ShouldClearTheUsersFailures() {
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> provider.authenticate(login("alice", "guess", null)))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+        provider.authenticate(login("alice", "secret", null));
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> provider.authenticate(login("alice", "guess", null)))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+        assertThat(provider.authenticate(login("alice", "secret", null)).isAuthenticated()).isTrue();
+    }
+
+    @Test
+    void overloadRejections_ShouldNotCountAsFailures() {
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> provider.authenticate(login("busy", "secret", "10.0.0.3")))
+                    .isInstanceOf(PasswordHashingRejectedException.class);
+        }
+
+        assertThat(attempts).hasValue(5);
+    }
+
+    @Test
+    void concurrentGuesses_ShouldNotAllPassTheLimit() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger checked = new AtomicInteger();
+        ThrottlingAuthenticationProvider slow = new ThrottlingAuthenticationProvider(new AuthenticationProvider() {
+            @Override
+            public Authentication authenticate(Authentication authentication) {
+                checked.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new BadCredentialsException("Bad credentials");
+            }
+
+            @Override
+            public boolean supports(Class<?> authentication) {
+                return true;
+            }
+        }, new LoginThrottle(Duration.ofMinutes(5), 3, 0, 1024));
+        AtomicInteger throttled = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    slow.authenticate(login("alice", "guess", null));
+                } catch (LoginThrottledException e) {
+                    throttled.incrementAndGet();
+                } catch (BadCredentialsException e) {
+                    // one of the guesses that reached the realm
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        while (checked.get() + throttled.get() < 10) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(checked).hasValue(3);
+        assertThat(throttled).hasValue(7);
+    }
+
+    @Test
+    void successfulLogin_ShouldGiveBackItsAddressAttempt() {
+        for (int i = 0; i < 4; i++) {
+            String username = "user" + i;
+            assertThatThrownBy(() -> provider.authenticate(login(username, "guess", "10.0.0.5")))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+        for (int i = 0; i < 3; i++) {
+            assertThat(provider.authenticate(login("bob", "secret", "10.0.0.5")).isAuthenticated()).isTrue();
+        }
+
+        assertThatThrownBy(() -> provider.authenticate(login("carol", "guess", "10.0.0.5")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> provider.authenticate(login("bob", "secret", "10.0.0.5")))
+                .isInstanceOf(LoginThrottledException.class);
+    }
+
+    private static Authentication login(String username, String password, String remoteAddress) {
+        UsernamePasswordAuthenticationToken login = UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+        if (remoteAddress != null) {
+            login.setDetails(new WebAuthenticationDetails(remoteAddress, null));
+        }
+        return login;
+    }
+}
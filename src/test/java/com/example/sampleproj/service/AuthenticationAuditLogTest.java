@@ -0,0 +1,81 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.AuthAuditEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthenticationAuditLogTest {
+
+    @Test
+    void recordedEvents_ShouldReachSinkInBatches() throws Exception {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        List<AuthAuditEvent> written = Collections.synchronizedList(new ArrayList<>());
+        AuthenticationAuditLog auditLog = new AuthenticationAuditLog(events -> {
+            batchSizes.add(events.size());
+            written.addAll(events);
+        }, 1024, 100, Duration.ofMillis(50));
+
+        for (int i = 0; i < 500; i++) {
+            auditLog.record(AuthAuditEvent.Outcome.SUCCESS, "file", "user" + i, "127.0.0.1", null, 2_500_000);
+        }
+        auditLog.close();
+
+        assertThat(written).hasSize(500);
+        assertThat(written.get(499).username()).isEqualTo("user499");
+        assertThat(written.get(0).latencyMicros()).isEqualTo(2500L);
+        assertThat(batchSizes.stream().allMatch(size -> size <= 100)).isTrue();
+        assertThat(auditLog.getDropped()).isZero();
+    }
+
+    @Test
+    void fullBuffer_ShouldDropInsteadOfBlocking() throws Exception {
+        CountDownLatch sinkEntered = new CountDownLatch(1);
+        CountDownLatch releaseSink = new CountDownLatch(1);
+        AuthenticationAuditLog auditLog = new AuthenticationAuditLog(events -> {
+            sinkEntered.countDown();
+            releaseSink.await();
+        }, 4, 1, Duration.ofMillis(10));
+
+        auditLog.record(AuthAuditEvent.Outcome.FAILURE, "password", "first", null, "BadCredentialsException", 0);
+        assertThat(sinkEntered.await(5, TimeUnit.SECONDS)).isTrue();
+        long start = System.nanoTime();
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (auditLog.record(AuthAuditEvent.Outcome.FAILURE, "password", "user" + i, null, "BadCredentialsException", 0)) {
+                accepted++;
+            }
+        }
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000L);
+        assertThat(accepted).isEqualTo(4);
+        assertThat(auditLog.getDropped()).isEqualTo(6L);
+        releaseSink.countDown();
+        auditLog.close();
+    }
+
+    @Test
+    void failingSink_ShouldBeCountedAndNotStopTheDrain() throws Exception {
+        List<AuthAuditEvent> written = Collections.synchronizedList(new ArrayList<>());
+        AuthenticationAuditLog auditLog = new AuthenticationAuditLog(events -> {
+            if (events.get(0).username().equals("broken")) {
+                throw new IllegalStateException("sink down");
+            }
+            written.addAll(events);
+        }, 16, 1, Duration.ofMillis(10));
+
+        auditLog.record(AuthAuditEvent.Outcome.SUCCESS, "ldap", "broken", null, null, 0);
+        auditLog.record(AuthAuditEvent.Outcome.SUCCESS, "ldap", "alice", null, null, 0);
+        auditLog.close();
+
+        assertThat(auditLog.getFailedWrites()).isEqualTo(1L);
+        assertThat(written).extracting(AuthAuditEvent::username).containsExactly("alice");
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactUserServiceTest {
+
+    // Small chunks so the tests cross chunk boundaries
+    private final CompactUserService userService = new CompactUserService(256, false);
+
+    @Test
+    void getUserById_WithSampleData_ShouldReturnUser() {
+        Optional<User> user = userService.getUserById(2L);
+
+        assertThat(user).isPresent();
+        assertThat(user.get().getName()).isEqualTo("Jane Smith");
+        assertThat(user.get().getEmail()).isEqualTo("jane.smith@example.com");
+    }
+
+    @Test
+    void createUser_WithManyUsers_ShouldSpanChunksAndGrowIndexes() {
+        for (int i = 0; i < 5000; i++) {
+            userService.createUser(new User("Name " + i, "user" + i + "@example.com"));
+        }
+
+        assertThat(userService.getUserCount()).isEqualTo(5002);
+        assertThat(userService.getUserByEmail("user4999@example.com")).map(User::getName).contains("Name 4999");
+        assertThat(userService.getUserById(5002L)).map(User::getEmail).contains("user4999@example.com");
+    }
+
+    @Test
+    void createUser_WithNonAsciiName_ShouldRoundTripUtf8() {
+        User created = userService.createUser(new User("Zoë Ümlaut 名前", "zoe@example.com"));
+
+        assertThat(userService.getUserById(created.getId())).map(User::getName).contains("Zoë Ümlaut 名前");
+    }
+
+    @Test
+    void updateUser_ShouldReindexEmailAndKeepId() {
+        User created = userService.createUser(new User("Alice", "alice@example.com"));
+
+        Optional<User> updated = userService.updateUser(created.getId(), new User("Alice B", "alice.b@example.com"));
+
+        assertThat(updated).map(User::getId).contains(created.getId());
+        assertThat(userService.getUserByEmail("alice@example.com")).isEmpty();
+        assertThat(userService.getUserByEmail("alice.b@example.com")).map(User::getName).contains("Alice B");
+        assertThat(userService.getGarbageBytes()).isPositive();
+    }
+
+    @Test
+    void updateUser_ToAnotherUsersEmail_ShouldFailAndChangeNothing() {
+        User alice = userService.createUser(new User("Alice", "alice@example.com"));
+        User bob = userService.createUser(new User("Bob", "bob@example.com"));
+
+        assertThatThrownBy(() -> userService.updateUser(alice.getId(), new User("Alice", "bob@example.com")))
+                .isInstanceOf(DuplicateKeyException.class);
+
+        assertThat(userService.getUserByEmail("alice@example.com")).map(User::getId).contains(alice.getId());
+        assertThat(userService.getUserByEmail("bob@example.com")).map(User::getId).contains(bob.getId());
+    }
+
+    @Test
+    void deleteUser_ShouldSkipDeletedSlotsWhenPaging() {
+        User alice = userService.createUser(new User("Alice", "alice@example.com"));
+        User bob = userService.createUser(new User("Bob", "bob@example.com"));
+
+        assertThat(userService.deleteUser(alice.getId())).isTrue();
+        assertThat(userService.deleteUser(alice.getId())).isFalse();
+
+        assertThat(userService.getUserByEmail("alice@example.com")).isEmpty();
+        assertThat(userService.getUsersAfter(2L, 10)).extracting(User::getId).containsExactly(bob.getId());
+        assertThat(userService.getUserCount()).isEqualTo(3);
+    }
+
+    @Test
+    void createIfEmailAbsent_WithTakenEmail_ShouldReturnEmpty() {
+        assertThat(userService.createIfEmailAbsent(new User("Copy", "john.doe@example.com"))).isEmpty();
+        assertThat(userService.createIfEmailAbsent(new User("New", "new@example.com"))).isPresent();
+    }
+
+    @Test
+    void forEachUser_ShouldVisitEveryLiveUserInIdOrder() {
+        for (int i = 0; i < 1500; i++) {
+            userService.createUser(new User("Name " + i, "user" + i + "@example.com"));
+        }
+        userService.deleteUser(10L);
+        List<Long> ids = new ArrayList<>();
+
+        userService.forEachUser(user -> ids.add(user.getId()));
+
+        assertThat(ids).hasSize(1501).isSorted().doesNotContain(10L);
+    }
+
+    @Test
+    void createUser_WithRecordLargerThanChunk_ShouldBeRejected() {
+        assertThatThrownBy(() -> userService.createUser(new User("x".repeat(300), "big@example.com")))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(userService.getUserCount()).isEqualTo(2);
+        assertThat(userService.getUserByEmail("big@example.com")).isEmpty();
+        assertThat(userService.createUser(new User("Next", "next@example.com")).getId()).isEqualTo(3L);
+    }
+
+    @Test
+    void updateUser_WithRecordLargerThanChunk_ShouldLeaveUserAndEmailIndexIntact() {
+        User alice = userService.createUser(new User("Alice", "alice@example.com"));
+
+        assertThatThrownBy(() -> userService.updateUser(alice.getId(), new User("x".repeat(300), "alice@example.com")))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(userService.getUserByEmail("alice@example.com")).map(User::getName).contains("Alice");
+    }
+
+    @Test
+    void createUser_WithTakenEmail_ShouldFailAndKeepTheExistingOwner() {
+        assertThatThrownBy(() -> userService.createUser(new User("Impostor", "jane.smith@example.com")))
+                .isInstanceOf(DuplicateKeyException.class);
+
+        assertThat(userService.getUserByEmail("jane.smith@example.com")).map(User::getId).contains(2L);
+        assertThat(userService.getUserCount()).isEqualTo(2);
+    }
+
+    @Test
+    void updateChurn_ShouldCompactRecordsInsteadOfGrowing() {
+        for (int i = 0; i < 100; i++) {
+            userService.createUser(new User("Name " + i, "user" + i + "@example.com"));
+        }
+        long storage = userService.getStorageBytes();
+
+        for (int round = 0; round < 50; round++) {
+            for (long id = 3; id <= 102; id++) {
+                userService.updateUser(id, new User("Name " + id + " v" + round, "user" + (id - 3) + "@example.com"));
+            }
+        }
+
+        assertThat(userService.getStorageBytes()).isLessThanOrEqualTo(storage * 3);
+        assertThat(userService.getUserById(50L)).map(User::getName).contains("Name 50 v49");
+        assertThat(userService.getUserByEmail("user99@example.com")).map(User::getId).contains(102L);
+        assertThat(userService.getGarbageBytes()).isLessThan(storage);
+    }
+
+    @Test
+    void deletes_ShouldSqueezeOutDeletedSlots() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            ids.add(userService.createUser(new User("Name " + i, "user" + i + "@example.com")).getId());
+        }
+        long storage = userService.getStorageBytes();
+        for (int i = 0; i < 3000; i++) {
+            if (i % 10 != 0) {
+                userService.deleteUser(ids.get(i));
+            }
+        }
+
+        assertThat(userService.getStorageBytes()).isLessThan(storage / 2);
+        assertThat(userService.getUserCount()).isEqualTo(302);
+        assertThat(userService.getUsersAfter(ids.get(0), 3)).extracting(User::getId)
+                .containsExactly(ids.get(10), ids.get(20), ids.get(30));
+        assertThat(userService.getUserByEmail("user2990@example.com")).map(User::getId).contains(ids.get(2990));
+        assertThat(userService.getUserById(ids.get(2991))).isEmpty();
+        User created = userService.createUser(new User("After", "after@example.com"));
+        assertThat(userService.getUserById(created.getId())).map(User::getName).contains("After");
+    }
+
+    @Test
+    void offHeapStore_ShouldBehaveLikeHeapStore() {
+        CompactUserService offHeap = new CompactUserService(1024, true);
+
+        User created = offHeap.createUser(new User("Direct", "direct@example.com"));
+
+        assertThat(offHeap.getUserByEmail("direct@example.com")).map(User::getId).contains(created.getId());
+    }
+}
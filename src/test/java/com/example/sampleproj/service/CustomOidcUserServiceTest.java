@@ -0,0 +1,218 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.config.OAuth2ClientConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.authentication.OAuth2LoginAuthenticationToken;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcAuthorizationCodeAuthenticationProvider;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationExchange;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationResponse;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the OIDC login against a stub provider on the loopback interface.
+ */
+class CustomOidcUserServiceTest {
+
+    private static final String CLIENT_ID = "test-client";
+    private static final String REDIRECT_URI = "http://localhost/login/oauth2/code/stub";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger tokenCalls = new AtomicInteger();
+    private final AtomicInteger userInfoCalls = new AtomicInteger();
+    private volatile boolean profileClaimsInIdToken = true;
+    private volatile long userInfoDelayMillis;
+
+    private HttpServer provider;
+    private String issuer;
+    private RSAKey signingKey;
+    private OidcAuthorizationCodeAuthenticationProvider loginProvider;
+    private ClientRegistration registration;
+
+    @BeforeEach
+    void startProvider() throws Exception {
+        signingKey = new RSAKeyGenerator(2048).keyID("stub").generate();
+        provider = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        issuer = "http://127.0.0.1:" + provider.getAddress().getPort();
+        provider.createContext("/token", exchange -> {
+            tokenCalls.incrementAndGet();
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("access_token", "access-" + tokenCalls.get());
+            body.put("token_type", "Bearer");
+            body.put("expires_in", 300);
+            body.put("scope", "openid profile email");
+            body.put("id_token", idToken());
+            respond(exchange, body);
+        });
+        provider.createContext("/jwks", exchange -> respond(exchange, new JWKSet(signingKey.toPublicJWK()).toJSONObject()));
+        provider.createContext("/userinfo", exchange -> {
+            userInfoCalls.incrementAndGet();
+            try {
+                Thread.sleep(userInfoDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, Map.of("sub", "1234", "email", "jane@example.com", "name", "Jane Doe"));
+        });
+        provider.start();
+
+        OAuth2ClientConfig config = new OAuth2ClientConfig();
+        ReflectionTestUtils.setField(config, "connectTimeoutMillis", 500L);
+        ReflectionTestUtils.setField(config, "readTimeoutMillis", 500L);
+        ReflectionTestUtils.setField(config, "oidcRequiredClaims", new String[] {"email", "name"});
+        ReflectionTestUtils.setField(config, "userInfoCacheTtlSeconds", 300L);
+        ReflectionTestUtils.setField(config, "userInfoCacheMaxEntries", 100);
+        CustomOAuth2UserService userInfoClient = new CustomOAuth2UserService();
+        userInfoClient.setRestOperations(config.oauth2RestOperations());
+
+        loginProvider = new OidcAuthorizationCodeAuthenticationProvider(
+                config.authorizationCodeTokenResponseClient(), config.customOidcUserService(userInfoClient));
+        loginProvider.setJwtDecoderFactory(config.idTokenDecoderFactory());
+        registration = registration("stub");
+    }
+
+    @AfterEach
+    void stopProvider() {
+        provider.stop(0);
+    }
+
+    @Test
+    void idTokenWithProfileClaims_ShouldNotCallUserInfo() {
+        OidcUser user = login();
+
+        assertThat(user.getName()).isEqualTo("1234");
+        assertThat(user.getEmail()).isEqualTo("jane@example.com");
+        assertThat((String) user.getAttribute("name")).isEqualTo("Jane Doe");
+        assertThat(tokenCalls).hasValue(1);
+        assertThat(userInfoCalls).hasValue(0);
+    }
+
+    @Test
+    void idTokenWithoutProfileClaims_ShouldFetchUserInfoOncePerSubject() {
+        profileClaimsInIdToken = false;
+
+        OidcUser first = login();
+        OidcUser second = login();
+
+        assertThat(first.getEmail()).isEqualTo("jane@example.com");
+        assertThat((String) second.getAttribute("name")).isEqualTo("Jane Doe");
+        assertThat(tokenCalls).hasValue(2);
+        assertThat(userInfoCalls).hasValue(1);
+    }
+
+    @Test
+    void sameSubjectFromAnotherRegistration_ShouldNotShareCachedUserInfo() {
+        profileClaimsInIdToken = false;
+
+        login();
+        registration = registration("other");
+        login();
+
+        assertThat(userInfoCalls).hasValue(2);
+    }
+
+    @Test
+    void slowUserInfo_ShouldFailWithinReadTimeout() {
+        profileClaimsInIdToken = false;
+        userInfoDelayMillis = 3000;
+
+        long start = System.nanoTime();
+        assertThatThrownBy(this::login).isInstanceOf(OAuth2AuthenticationException.class);
+
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(2000);
+    }
+
+    private OidcUser login() {
+        OAuth2AuthorizationRequest request = OAuth2AuthorizationRequest.authorizationCode()
+                .authorizationUri(issuer + "/authorize")
+                .clientId(CLIENT_ID)
+                .redirectUri(REDIRECT_URI)
+                .scopes(Set.of("openid", "profile", "email"))
+                .state("state")
+                .build();
+        OAuth2AuthorizationResponse response = OAuth2AuthorizationResponse.success("code")
+                .redirectUri(REDIRECT_URI)
+                .state("state")
+                .build();
+        OAuth2LoginAuthenticationToken result = (OAuth2LoginAuthenticationToken) loginProvider.authenticate(
+                new OAuth2LoginAuthenticationToken(registration, new OAuth2AuthorizationExchange(request, response)));
+        return (OidcUser) result.getPrincipal();
+    }
+
+    private ClientRegistration registration(String registrationId) {
+        return ClientRegistration.withRegistrationId(registrationId)
+                .clientId(CLIENT_ID)
+                .clientSecret("secret")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri(REDIRECT_URI)
+                .scope("openid", "profile", "email")
+                .authorizationUri(issuer + "/authorize")
+                .tokenUri(issuer + "/token")
+                .jwkSetUri(issuer + "/jwks")
+                .userInfoUri(issuer + "/userinfo")
+                .userNameAttributeName("sub")
+                .build();
+    }
+
+    private String idToken() {
+        Instant now = Instant.now();
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .subject("1234")
+                .audience(CLIENT_ID)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusSeconds(300)));
+        if (profileClaimsInIdToken) {
+            claims.claim("email", "jane@example.com").claim("name", "Jane Doe");
+        }
+        try {
+            SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(),
+                    claims.build());
+            jwt.sign(new RSASSASigner(signingKey));
+            return jwt.serialize();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void respond(HttpExchange exchange, Map<String, ?> body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
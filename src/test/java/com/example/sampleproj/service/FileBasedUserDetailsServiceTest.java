@@ -1,12 +1,25 @@
 package com.example.sampleproj.service;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -20,6 +33,9 @@ class FileBasedUserDetailsServiceTest {
     @Autowired
     private FileBasedUserDetailsService userDetailsService;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
     @Test
     void loadUserByUsername_WithValidAdmin_ShouldReturnUserDetails() {
         UserDetails user = userDetailsService.loadUserByUsername("admin");
@@ -93,4 +109,121 @@ class FileBasedUserDetailsServiceTest {
         List<String> roles = userDetailsService.getUserRoles("invaliduser");
         assertThat(roles).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void login_WithOutdatedHash_ShouldReencodeStoredPassword() {
+        String weakHash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("password123");
+        FileBasedUserDetailsService service = new FileBasedUserDetailsService();
+        ReflectionTestUtils.setField(service, "adminPasswordHash", weakHash);
+        ReflectionTestUtils.setField(service, "moderatorPasswordHash", weakHash);
+        ReflectionTestUtils.setField(service, "viewerPasswordHash", weakHash);
+        service.loadUsers();
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(service);
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsPasswordService(service);
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "password123"));
+
+        String upgraded = service.loadUserByUsername("admin").getPassword();
+        assertThat(upgraded).startsWith("{bcrypt}$2a$10$");
+        assertThat(passwordEncoder.matches("password123", upgraded)).isTrue();
+        assertThat(service.loadUserByUsername("viewer").getPassword()).isEqualTo(weakHash);
+    }
+
+    @Test
+    void login_ShouldEraseThePasswordFromThePrincipalOnly() {
+        // password123
+        String hash = "{bcrypt}$2a$10$aRj1EgZ80QZ77AhcB2SoHe.LrAvbvLL2UftoUggmTe2OHzZQ5VcMq";
+        FileBasedUserDetailsService service = new FileBasedUserDetailsService();
+        ReflectionTestUtils.setField(service, "adminPasswordHash", hash);
+        service.loadUsers();
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(service);
+        provider.setPasswordEncoder(passwordEncoder);
+        ProviderManager manager = new ProviderManager(provider);
+        Authentication first = manager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "password123"));
+        Authentication second = manager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "password123"));
+
+        assertThat(((UserDetails) first.getPrincipal()).getPassword()).isNull();
+        assertThat(((UserDetails) second.getPrincipal()).getPassword()).isNull();
+        assertThat(service.loadUserByUsername("admin").getPassword()).isEqualTo(hash);
+    }
+
+    @Test
+    void loadUsers_FromFile_ShouldParseRolesAndLetEnvironmentOverride(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("users.properties");
+        Files.write(file, List.of(
+                "# comment",
+                "alice={bcrypt}alice-hash,ROLE_VIEWER,ROLE_MODERATOR",
+                "bob = {bcrypt}bob-hash , ROLE_VIEWER",
+                "broken-line",
+                "admin={bcrypt}file-admin-hash,ROLE_VIEWER"));
+        FileBasedUserDetailsService service = fileService(file, false);
+        ReflectionTestUtils.setField(service, "adminPasswordHash", "{bcrypt}env-admin-hash");
+        service.loadUsers();
+
+        assertThat(service.getAllUsernames()).containsExactlyInAnyOrder("alice", "bob", "admin");
+        assertThat(service.getUserRoles("alice")).containsExactly("ROLE_VIEWER", "ROLE_MODERATOR");
+        assertThat(service.loadUserByUsername("bob").getPassword()).isEqualTo("{bcrypt}bob-hash");
+        assertThat(service.loadUserByUsername("admin").getPassword()).isEqualTo("{bcrypt}env-admin-hash");
+        assertThat(service.getUserRoles("admin")).containsExactly("ROLE_ADMIN");
+        assertThat(service.loadUserByUsername("alice").getAuthorities())
+                .isSameAs(service.loadUserByUsername("alice").getAuthorities());
+    }
+
+    @Test
+    void loadUsers_WithoutAnyUsers_ShouldFail(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("users.properties");
+        Files.write(file, List.of("# nobody here"));
+        FileBasedUserDetailsService service = fileService(file, false);
+
+        assertThatThrownBy(service::loadUsers).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void loadUsers_WithManyUsers_ShouldLoadAll(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("users.properties");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            lines.add("user" + i + "={bcrypt}hash" + i + ",ROLE_VIEWER");
+        }
+        Files.write(file, lines);
+        FileBasedUserDetailsService service = fileService(file, false);
+        service.loadUsers();
+
+        assertThat(service.getAllUsernames()).hasSize(100_000);
+        assertThat(service.loadUserByUsername("user99999").getPassword()).isEqualTo("{bcrypt}hash99999");
+        // Users with the same roles share one authority list
+        assertThat(service.loadUserByUsername("user1").getAuthorities())
+                .isSameAs(service.loadUserByUsername("user2").getAuthorities());
+    }
+
+    @Test
+    void fileChange_ShouldSwapInReloadedUsers(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("users.properties");
+        Files.write(file, List.of("alice={bcrypt}alice-hash,ROLE_VIEWER"));
+        FileBasedUserDetailsService service = fileService(file, true);
+        service.loadUsers();
+        try {
+            Path replacement = dir.resolve("users.properties.tmp");
+            Files.write(replacement, List.of("bob={bcrypt}bob-hash,ROLE_ADMIN"));
+            Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!service.userExists("bob") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(service.getAllUsernames()).containsExactly("bob");
+            assertThat(service.getUserRoles("bob")).containsExactly("ROLE_ADMIN");
+        } finally {
+            service.stopWatching();
+        }
+    }
+
+    private static FileBasedUserDetailsService fileService(Path file, boolean watch) {
+        FileBasedUserDetailsService service = new FileBasedUserDetailsService();
+        ReflectionTestUtils.setField(service, "usersFile", file.toUri().toString());
+        ReflectionTestUtils.setField(service, "watchUsersFile", watch);
+        return service;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryUserServiceTest {
+
+    private InMemoryUserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new InMemoryUserService();
+    }
+
+    @Test
+    void getUserById_WithSampleData_ShouldReturnUser() {
+        Optional<User> user = userService.getUserById(1L);
+
+        assertThat(user).isPresent();
+        assertThat(user.get().getEmail()).isEqualTo("john.doe@example.com");
+    }
+
+    @Test
+    void getUserByEmail_ShouldUseEmailIndex() {
+        User created = userService.createUser(new User("Alice", "alice@example.com"));
+
+        assertThat(userService.getUserByEmail("alice@example.com")).contains(created);
+        assertThat(userService.getUserByEmail("missing@example.com")).isEmpty();
+    }
+
+    @Test
+    void updateUser_WithNewEmail_ShouldReindexEmail() {
+        User created = userService.createUser(new User("Alice", "alice@example.com"));
+
+        Optional<User> updated = userService.updateUser(created.getId(), new User("Alice B", "alice.b@example.com"));
+
+        assertThat(updated).isPresent();
+        assertThat(updated.get().getName()).isEqualTo("Alice B");
+        assertThat(userService.getUserByEmail("alice@example.com")).isEmpty();
+        assertThat(userService.getUserByEmail("alice.b@example.com")).map(User::getId).contains(created.getId());
+    }
+
+    @Test
+    void updateUser_ShouldBumpVersionsAndRejectStaleExpectedVersion() {
+        User created = userService.createUser(new User("Alice", "alice@example.com"));
+        long storeVersion = userService.getStoreVersion();
+
+        Optional<User> updated = userService.updateUser(created.getId(), new User("Alice B", "alice@example.com"), 0L);
+
+        assertThat(updated).map(User::getVersion).contains(1L);
+        assertThat(userService.getStoreVersion()).isNotEqualTo(storeVersion);
+        assertThatThrownBy(() -> userService.updateUser(created.getId(), new User("Alice C", "alice@example.com"), 0L))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(userService.getUserById(created.getId())).map(User::getName).contains("Alice B");
+    }
+
+    @Test
+    void updateUser_ToAnotherUsersEmail_ShouldFailAndKeepBothEntries() {
+        User alice = userService.createUser(new User("Alice", "alice@example.com"));
+        User bob = userService.createUser(new User("Bob", "bob@example.com"));
+
+        assertThatThrownBy(() -> userService.updateUser(alice.getId(), new User("Alice", "bob@example.com")))
+                .isInstanceOf(DuplicateKeyException.class);
+
+        assertThat(userService.getUserById(alice.getId())).get().extracting(User::getEmail).isEqualTo("alice@example.com");
+        assertThat(userService.getUserByEmail("alice@example.com")).get().extracting(User::getId).isEqualTo(alice.getId());
+        assertThat(userService.getUserByEmail("bob@example.com")).get().extracting(User::getId).isEqualTo(bob.getId());
+        assertThatThrownBy(() -> userService.createUser(new User("Bob Again", "bob@example.com")))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void updateUser_WhenUserDoesNotExist_ShouldReturnEmpty() {
+        assertThat(userService.updateUser(999L, new User("Nobody", "nobody@example.com"))).isEmpty();
+    }
+
+    @Test
+    void deleteUser_ShouldRemoveFromBothIndexes() {
+        User created = userService.createUser(new User("Alice", "alice@example.com"));
+
+        assertThat(userService.deleteUser(created.getId())).isTrue();
+        assertThat(userService.getUserById(created.getId())).isEmpty();
+        assertThat(userService.getUserByEmail("alice@example.com")).isEmpty();
+        assertThat(userService.deleteUser(created.getId())).isFalse();
+    }
+
+    @Test
+    void getUsersAfter_ShouldPageInIdOrder() {
+        User alice = userService.createUser(new User("Alice", "alice@example.com"));
+        User bob = userService.createUser(new User("Bob", "bob@example.com"));
+        userService.deleteUser(2L);
+
+        List<User> firstPage = userService.getUsersAfter(null, 2);
+        List<User> secondPage = userService.getUsersAfter(firstPage.get(1).getId(), 2);
+
+        assertThat(firstPage).extracting(User::getId).containsExactly(1L, alice.getId());
+        assertThat(secondPage).extracting(User::getId).containsExactly(bob.getId());
+        assertThat(userService.getUsersAfter(bob.getId(), 2)).isEmpty();
+    }
+
+    @Test
+    void forEachUser_ShouldVisitUsersInIdOrder() {
+        userService.createUser(new User("Alice", "alice@example.com"));
+        List<Long> ids = new ArrayList<>();
+
+        userService.forEachUser(user -> ids.add(user.getId()));
+
+        assertThat(ids).containsExactly(1L, 2L, 3L);
+        assertThat(userService.getUserCount()).isEqualTo(3);
+    }
+
+    @Test
+    void createUser_FromManyThreads_ShouldKeepAllUsers() throws Exception {
+        int threads = 8;
+        int perThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    userService.createUser(new User("User " + i, "user-" + thread + "-" + i + "@example.com"));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(userService.getUserCount()).isEqualTo(2 + threads * perThread);
+        assertThat(userService.getUserByEmail("user-3-999@example.com")).isPresent();
+    }
+
+    @Test
+    void createIfEmailAbsent_WithTakenEmail_ShouldReturnEmpty() {
+        assertThat(userService.createIfEmailAbsent(new User("Alice", "alice@example.com"))).isPresent();
+        assertThat(userService.createIfEmailAbsent(new User("Alice Clone", "alice@example.com"))).isEmpty();
+        assertThat(userService.getUserByEmail("alice@example.com")).map(User::getName).contains("Alice");
+    }
+
+    @Test
+    void createIfEmailAbsent_FromManyThreads_ShouldCreateExactlyOnce() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return userService.createIfEmailAbsent(new User("Racer", "race@example.com")).isPresent();
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        for (Future<Boolean> result : results) {
+            created += result.get(10, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertThat(created).isEqualTo(1);
+        assertThat(userService.getUserCount()).isEqualTo(3);
+    }
+}
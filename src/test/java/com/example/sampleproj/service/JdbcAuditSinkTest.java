@@ -0,0 +1,53 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.AuthAuditEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcAuditSinkTest {
+
+    private final EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .build();
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+
+    @AfterEach
+    void shutDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void write_WithOverlongValues_ShouldTruncateInsteadOfFailingTheBatch() {
+        JdbcAuditSink sink = new JdbcAuditSink(database, "AUTH_AUDIT");
+        String longUsername = "u".repeat(1000);
+        String longReason = "r".repeat(500);
+
+        sink.write(List.of(
+                new AuthAuditEvent(Instant.now(), AuthAuditEvent.Outcome.FAILURE, "password", longUsername,
+                        "10.0.0.1", longReason, 10),
+                new AuthAuditEvent(Instant.now(), AuthAuditEvent.Outcome.SUCCESS, "password", "alice",
+                        "10.0.0.1", null, 10)));
+
+        assertThat(jdbcTemplate.queryForList("SELECT USERNAME FROM AUTH_AUDIT ORDER BY OUTCOME", String.class))
+                .containsExactly(longUsername.substring(0, 255), "alice");
+        assertThat(jdbcTemplate.queryForObject("SELECT LENGTH(REASON) FROM AUTH_AUDIT WHERE OUTCOME = 'FAILURE'",
+                Integer.class)).isEqualTo(128);
+    }
+
+    @Test
+    void truncate_ShouldNotSplitASurrogatePair() {
+        assertThat(JdbcAuditSink.truncate("ab😀", 3)).isEqualTo("ab");
+        assertThat(JdbcAuditSink.truncate("abc", 3)).isEqualTo("abc");
+        assertThat(JdbcAuditSink.truncate(null, 3)).isNull();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "app.users.store=jpa")
+@ActiveProfiles("test")
+class JpaUserServiceTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Test
+    void userService_ShouldBeJpaBacked() {
+        assertThat(userService).isInstanceOf(JpaUserService.class);
+    }
+
+    @Test
+    void createUser_ShouldPersistAndCacheById() {
+        User created = userService.createUser(new User("Cache Me", "cache.me@example.com"));
+
+        assertThat(created.getId()).isNotNull();
+        assertThat(userService.getUserById(created.getId())).map(User::getEmail).contains("cache.me@example.com");
+        assertThat(entityManagerFactory.getCache().contains(User.class, created.getId())).isTrue();
+    }
+
+    @Test
+    void createIfEmailAbsent_WithTakenEmail_ShouldReturnEmpty() {
+        assertThat(userService.createIfEmailAbsent(new User("Unique", "unique@example.com"))).isPresent();
+        assertThat(userService.createIfEmailAbsent(new User("Duplicate", "unique@example.com"))).isEmpty();
+        assertThat(userService.getUserByEmail("unique@example.com")).map(User::getName).contains("Unique");
+    }
+
+    @Test
+    void createUsers_WithTakenEmail_ShouldCreateTheOthers() {
+        userService.createUser(new User("Taken", "taken.chunk@example.com"));
+
+        List<Optional<User>> created = userService.createUsers(List.of(
+                new User("First", "first.chunk@example.com"),
+                new User("Duplicate", "taken.chunk@example.com"),
+                new User("Last", "last.chunk@example.com")));
+
+        assertThat(created).extracting(Optional::isPresent).containsExactly(true, false, true);
+        assertThat(userService.getUserByEmail("last.chunk@example.com")).isPresent();
+        assertThat(userService.getUserByEmail("taken.chunk@example.com")).map(User::getName).contains("Taken");
+    }
+
+    @Test
+    void storeVersion_ShouldFollowChangesMadeByOtherInstances() {
+        User created = userService.createUser(new User("Versioned", "versioned@example.com"));
+        long version = userService.getStoreVersion();
+        assertThat(userService.getStoreVersion()).isEqualTo(version);
+
+        // A second store on the same database, as another node would run
+        UserService otherInstance = beanFactory.createBean(JpaUserService.class);
+        otherInstance.updateUser(created.getId(), new User("Changed Elsewhere", "versioned@example.com"));
+        assertThat(userService.getStoreVersion()).isNotEqualTo(version);
+
+        version = userService.getStoreVersion();
+        otherInstance.deleteUser(created.getId());
+        assertThat(userService.getStoreVersion()).isNotEqualTo(version);
+    }
+
+    @Test
+    void storeVersion_ShouldNotMoveWhenAWriteFails() {
+        userService.createUser(new User("Owner", "owner.version@example.com"));
+        User other = userService.createUser(new User("Other", "other.version@example.com"));
+        long version = userService.getStoreVersion();
+
+        assertThatThrownBy(() -> userService.updateUser(other.getId(), new User("Other", "owner.version@example.com")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(userService.getStoreVersion()).isEqualTo(version);
+    }
+
+    @Test
+    void getUserByEmail_ShouldUseNaturalId() {
+        User created = userService.createUser(new User("Natural", "natural@example.com"));
+
+        assertThat(userService.getUserByEmail("natural@example.com")).map(User::getId).contains(created.getId());
+        assertThat(userService.getUserByEmail("unknown@example.com")).isEmpty();
+    }
+
+    @Test
+    void updateUser_WithNewEmail_ShouldResolveByNewEmail() {
+        User created = userService.createUser(new User("Before", "before@example.com"));
+
+        Optional<User> updated = userService.updateUser(created.getId(), new User("After", "after@example.com"));
+
+        assertThat(updated).map(User::getName).contains("After");
+        assertThat(userService.getUserByEmail("after@example.com")).map(User::getId).contains(created.getId());
+        assertThat(userService.getUserByEmail("before@example.com")).isEmpty();
+    }
+
+    @Test
+    void updateUser_ToAnotherUsersEmail_ShouldFailAndChangeNothing() {
+        User first = userService.createUser(new User("First", "first.taken@example.com"));
+        User second = userService.createUser(new User("Second", "second.taken@example.com"));
+
+        assertThatThrownBy(() -> userService.updateUser(first.getId(), new User("First", "second.taken@example.com")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(userService.getUserById(first.getId())).map(User::getEmail).contains("first.taken@example.com");
+        assertThat(userService.getUserByEmail("second.taken@example.com")).map(User::getId).contains(second.getId());
+    }
+
+    @Test
+    void deleteUser_ShouldRemoveUser() {
+        User created = userService.createUser(new User("Doomed", "doomed@example.com"));
+
+        assertThat(userService.deleteUser(created.getId())).isTrue();
+        assertThat(userService.getUserById(created.getId())).isEmpty();
+        assertThat(userService.deleteUser(created.getId())).isFalse();
+    }
+
+    @Test
+    void getUsersAfterAndForEachUser_ShouldWalkInIdOrder() {
+        User first = userService.createUser(new User("First", "first.page@example.com"));
+        User second = userService.createUser(new User("Second", "second.page@example.com"));
+
+        List<User> page = userService.getUsersAfter(first.getId() - 1, 2);
+        List<Long> visited = new ArrayList<>();
+        userService.forEachUser(user -> visited.add(user.getId()));
+
+        assertThat(page).extracting(User::getId).containsExactly(first.getId(), second.getId());
+        assertThat(visited).containsSubsequence(first.getId(), second.getId());
+        assertThat(visited).isSorted();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.User;
+import com.example.sampleproj.model.UserImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserBulkServiceTest {
+
+    private InMemoryUserService userService;
+    private UserBulkService bulkService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new InMemoryUserService();
+        bulkService = new UserBulkService();
+        ReflectionTestUtils.setField(bulkService, "userService", userService);
+        ReflectionTestUtils.setField(bulkService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(bulkService, "validator", Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(bulkService, "chunkSize", 2);
+        ReflectionTestUtils.setField(bulkService, "maxErrors", 10);
+    }
+
+    @Test
+    void importUsers_WithNdjson_ShouldInsertValidLinesAndReportErrors() throws Exception {
+        String body = """
+                {"name":"Alice","email":"alice@example.com"}
+                {"name":"Bob","email":"bob@example.com"}
+                {"name":"","email":"blank@example.com"}
+                not json
+                {"name":"Carol","email":"carol@example.com"}
+                {"name":"Alice Again","email":"alice@example.com"}
+                """;
+
+        UserImportResult result = bulkService.importUsers(stream(body), UserBulkService.Format.NDJSON);
+
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getErrors()).extracting(UserImportResult.LineError::getLine).containsExactly(3L, 4L, 6L);
+        assertThat(userService.getUserByEmail("carol@example.com")).isPresent();
+    }
+
+    @Test
+    void importUsers_WithCsv_ShouldSkipHeaderAndHandleQuotes() throws Exception {
+        String body = "name,email\n\"Doe, John\",john.d@example.com\nbroken line\n";
+
+        UserImportResult result = bulkService.importUsers(stream(body), UserBulkService.Format.CSV);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(UserImportResult.LineError::getLine).containsExactly(3L);
+        assertThat(userService.getUserByEmail("john.d@example.com")).map(User::getName).contains("Doe, John");
+    }
+
+    @Test
+    void exportUsers_WithCsv_ShouldWriteEveryUser() throws Exception {
+        userService.createUser(new User("Doe, Jim", "jim@example.com"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bulkService.exportUsers(out, UserBulkService.Format.CSV);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "id,name,email",
+                "1,John Doe,john.doe@example.com",
+                "2,Jane Smith,jane.smith@example.com",
+                "3,\"Doe, Jim\",jim@example.com");
+    }
+
+    @Test
+    void importUsers_WithExportedCsv_ShouldIgnoreIdsAndExistingEmails() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulkService.exportUsers(out, UserBulkService.Format.CSV);
+        String exported = out.toString(StandardCharsets.UTF_8)
+                .replace("john.doe@example.com", "john.copy@example.com");
+
+        UserImportResult result = bulkService.importUsers(stream(exported), UserBulkService.Format.CSV);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(UserImportResult.LineError::getMessage)
+                .containsExactly("Email already exists: jane.smith@example.com");
+        assertThat(userService.getUserByEmail("john.copy@example.com")).map(User::getId).contains(3L);
+    }
+
+    @Test
+    void importUsers_WithQuotedNewline_ShouldReadFieldAcrossLines() throws Exception {
+        String body = "name,email\n\"Doe,\nJohn\",john.d@example.com\nbroken line\n\"Jane \"\"JJ\"\"\nSmith\",jj@example.com\n";
+
+        UserImportResult result = bulkService.importUsers(stream(body), UserBulkService.Format.CSV);
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(UserImportResult.LineError::getLine).containsExactly(4L);
+        assertThat(userService.getUserByEmail("john.d@example.com")).map(User::getName).contains("Doe,\nJohn");
+        assertThat(userService.getUserByEmail("jj@example.com")).map(User::getName).contains("Jane \"JJ\"\nSmith");
+    }
+
+    @Test
+    void importUsers_WhenInsertFails_ShouldNotLeakTheCause() throws Exception {
+        UserService failing = mock(UserService.class);
+        when(failing.createUsers(anyList()))
+                .thenThrow(new IllegalStateException("SQL [insert into users ...]; constraint UK_EMAIL"));
+        ReflectionTestUtils.setField(bulkService, "userService", failing);
+
+        UserImportResult result = bulkService.importUsers(
+                stream("{\"name\":\"Alice\",\"email\":\"alice@example.com\"}\n"), UserBulkService.Format.NDJSON);
+
+        assertThat(result.getErrors()).extracting(UserImportResult.LineError::getMessage).containsExactly("Insert failed");
+    }
+
+    @Test
+    void exportUsers_WithNdjson_ShouldWriteOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bulkService.exportUsers(out, UserBulkService.Format.NDJSON);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(new ObjectMapper().readValue(lines[1], User.class).getEmail()).isEqualTo("jane.smith@example.com");
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
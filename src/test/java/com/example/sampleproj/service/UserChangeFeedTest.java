@@ -0,0 +1,168 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserChangeFeedTest {
+
+    private InMemoryUserService userService;
+    private UserChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        startFeed(2, 60_000L);
+    }
+
+    private void startFeed(int maxSubscribers, long sendTimeoutMillis) {
+        userService = new InMemoryUserService();
+        feed = new UserChangeFeed();
+        ReflectionTestUtils.setField(feed, "userService", userService);
+        ReflectionTestUtils.setField(feed, "queueCapacity", 4);
+        ReflectionTestUtils.setField(feed, "maxSubscribers", maxSubscribers);
+        ReflectionTestUtils.setField(feed, "timeoutMillis", 60_000L);
+        ReflectionTestUtils.setField(feed, "heartbeatMillis", 60_000L);
+        ReflectionTestUtils.setField(feed, "senderThreads", 2);
+        ReflectionTestUtils.setField(feed, "sendTimeoutMillis", sendTimeoutMillis);
+        feed.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.stop();
+    }
+
+    @Test
+    void subscriber_ShouldReceiveChangesInOrder() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        assertThat(feed.subscribe(emitter)).isTrue();
+
+        User alice = userService.createUser(new User("Alice", "alice@example.com"));
+        userService.updateUser(alice.getId(), new User("Alice B", "alice@example.com"));
+        userService.deleteUser(alice.getId());
+
+        awaitUntil(() -> emitter.events.size() == 3);
+        assertThat(emitter.events.get(0)).startsWith("event:created");
+        assertThat(emitter.events.get(1)).startsWith("event:updated");
+        assertThat(emitter.events.get(2)).startsWith("event:deleted");
+    }
+
+    @Test
+    void slowSubscriber_ShouldBeToldToResyncWithoutHoldingUpWritersOrOthers() throws Exception {
+        CountDownLatch stuck = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(stuck);
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        feed.subscribe(slow);
+        feed.subscribe(fast);
+
+        // The slow client blocks its sender on the first event; the writes
+        // after that overflow its queue instead of waiting for it
+        for (int i = 0; i < 20; i++) {
+            userService.createUser(new User("User " + i, "user" + i + "@example.com"));
+            int sent = i + 1;
+            awaitUntil(() -> fast.events.size() == sent);
+        }
+        stuck.countDown();
+
+        awaitUntil(() -> slow.completed);
+        assertThat(slow.events.get(slow.events.size() - 1)).startsWith("event:" + UserChangeFeed.RESYNC_EVENT);
+        assertThat(feed.getSubscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void stalledSends_ShouldDropTheSubscriberAndNotStarveTheOthers() throws Exception {
+        feed.stop();
+        startFeed(3, 100L);
+        CountDownLatch stuck = new CountDownLatch(1);
+        RecordingEmitter first = new RecordingEmitter(stuck, true);
+        RecordingEmitter second = new RecordingEmitter(stuck, true);
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        feed.subscribe(first);
+        feed.subscribe(second);
+        feed.subscribe(fast);
+
+        // Both sender threads block on the stuck clients, which ignore
+        // interrupts the way a blocked socket write can
+        userService.createUser(new User("Alice", "alice@example.com"));
+        awaitUntil(() -> feed.getSubscriberCount() == 1);
+        awaitUntil(() -> fast.events.size() == 1);
+        userService.createUser(new User("Bob", "bob@example.com"));
+        awaitUntil(() -> fast.events.size() == 2);
+        stuck.countDown();
+
+        awaitUntil(() -> first.completed && second.completed);
+        assertThat(first.events).hasSizeLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void subscribe_WhenLimitReached_ShouldRefuse() {
+        assertThat(feed.subscribe(new RecordingEmitter(new CountDownLatch(0)))).isTrue();
+        assertThat(feed.subscribe(new RecordingEmitter(new CountDownLatch(0)))).isTrue();
+
+        assertThat(feed.subscribe()).isNull();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch release;
+        final boolean ignoreInterrupts;
+        volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch release) {
+            this(release, false);
+        }
+
+        RecordingEmitter(CountDownLatch release, boolean ignoreInterrupts) {
+            this.release = release;
+            this.ignoreInterrupts = ignoreInterrupts;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            while (true) {
+                try {
+                    release.await();
+                    break;
+                } catch (InterruptedException e) {
+                    if (!ignoreInterrupts) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException(e);
+                    }
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            for (DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof String string) {
+                    text.append(string);
+                }
+            }
+            events.add(text.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private UserJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void restart_ShouldRecoverAllChangesFromTheLog() {
+        InMemoryUserService userService = open();
+        User alice = userService.createUser(new User("Alice", "alice@example.com"));
+        User bob = userService.createUser(new User("Bob", "bob@example.com"));
+        userService.updateUser(alice.getId(), new User("Alice Cooper", "alice.cooper@example.com"));
+        userService.deleteUser(bob.getId());
+        journal.close();
+
+        InMemoryUserService recovered = open();
+
+        assertThat(recovered.getUserCount()).isEqualTo(3);
+        assertThat(recovered.getUserById(alice.getId())).get()
+                .extracting(User::getName).isEqualTo("Alice Cooper");
+        assertThat(recovered.getUserByEmail("alice.cooper@example.com")).isPresent();
+        assertThat(recovered.getUserByEmail("alice@example.com")).isEmpty();
+        assertThat(recovered.getUserById(bob.getId())).isEmpty();
+        // Ids are never reused after a restart
+        assertThat(recovered.createUser(new User("Carol", "carol@example.com")).getId()).isGreaterThan(bob.getId());
+    }
+
+    @Test
+    void restart_ShouldNotSeedSampleDataTwice() {
+        open();
+        journal.close();
+
+        InMemoryUserService recovered = open();
+
+        assertThat(recovered.getUserCount()).isEqualTo(2);
+    }
+
+    @Test
+    void restart_ShouldNotBringBackDeletedSampleData() {
+        InMemoryUserService userService = open();
+        userService.deleteUser(1L);
+        userService.deleteUser(2L);
+        journal.close();
+
+        InMemoryUserService recovered = open();
+
+        assertThat(recovered.getUserCount()).isZero();
+        assertThat(recovered.getUserByEmail("john.doe@example.com")).isEmpty();
+    }
+
+    @Test
+    void snapshot_ShouldReplaceOlderLogsAndKeepLaterChanges() throws IOException {
+        InMemoryUserService userService = open();
+        User alice = userService.createUser(new User("Alice", "alice@example.com"));
+        journal.snapshot();
+        userService.updateUser(alice.getId(), new User("Alice", "alice@example.org"));
+        journal.close();
+
+        assertThat(files("snapshot-")).hasSize(1);
+        assertThat(files("wal-")).hasSize(1);
+
+        InMemoryUserService recovered = open();
+
+        assertThat(recovered.getUserCount()).isEqualTo(3);
+        assertThat(recovered.getUserByEmail("alice@example.com")).isEmpty();
+        assertThat(recovered.getUserByEmail("alice@example.org")).get()
+                .extracting(User::getId).isEqualTo(alice.getId());
+    }
+
+    @Test
+    void snapshot_WithNameOver64Kb_ShouldRoundTrip() {
+        InMemoryUserService userService = open(1 << 20);
+        String longName = "名".repeat(30_000);
+        User user = userService.createUser(new User(longName, "long@example.com"));
+        journal.snapshot();
+        journal.close();
+
+        InMemoryUserService recovered = open(1 << 20);
+
+        assertThat(recovered.getUserById(user.getId())).map(User::getName).contains(longName);
+    }
+
+    @Test
+    void restart_ShouldStopAtATornRecord() throws IOException {
+        InMemoryUserService userService = open();
+        User alice = userService.createUser(new User("Alice", "alice@example.com"));
+        journal.close();
+        Path log = files("wal-")[0];
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            // Half-written length and checksum right after the last good record
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2}), lastRecordEnd(log));
+        }
+
+        InMemoryUserService recovered = open();
+
+        assertThat(recovered.getUserById(alice.getId())).isPresent();
+        assertThat(recovered.getUserCount()).isEqualTo(3);
+    }
+
+    private InMemoryUserService open() {
+        return open(1 << 16);
+    }
+
+    private InMemoryUserService open(int segmentSize) {
+        journal = new UserJournal(directory.toString(), "always", 50, segmentSize, Long.MAX_VALUE, Long.MAX_VALUE);
+        return new InMemoryUserService(journal);
+    }
+
+    private Path[] files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix)).sorted().toArray(Path[]::new);
+        }
+    }
+
+    private static long lastRecordEnd(Path log) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(log));
+        while (bytes.remaining() >= 8) {
+            int length = bytes.getInt(bytes.position());
+            if (length <= 0) {
+                break;
+            }
+            bytes.position(bytes.position() + 8 + length);
+        }
+        return bytes.position();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.sampleproj.service;
+
+import com.example.sampleproj.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserSearchServiceTest {
+
+    private InMemoryUserService userService;
+    private UserSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new InMemoryUserService();
+        searchService = new UserSearchService();
+        ReflectionTestUtils.setField(searchService, "userService", userService);
+        searchService.buildIndex();
+    }
+
+    @Test
+    void search_ShouldFindExistingUsersBySubstring() {
+        assertThat(searchService.search("smith", false, 10))
+                .extracting(User::getName).containsExactly("Jane Smith");
+        assertThat(searchService.search("EXAMPLE.COM", false, 10)).hasSize(2);
+    }
+
+    @Test
+    void search_WithPrefixMode_ShouldOnlyMatchFieldStart() {
+        userService.createUser(new User("Bob Johnson", "bob@example.com"));
+
+        assertThat(searchService.search("joh", true, 10))
+                .extracting(User::getName).containsExactly("John Doe");
+        assertThat(searchService.search("joh", false, 10))
+                .extracting(User::getName).containsExactly("John Doe", "Bob Johnson");
+    }
+
+    @Test
+    void search_WithShortQuery_ShouldMatchPrefix() {
+        userService.createUser(new User("Al", "al@example.com"));
+
+        assertThat(searchService.search("ja", false, 10)).extracting(User::getName).containsExactly("Jane Smith");
+        assertThat(searchService.search("a", false, 10)).extracting(User::getName).containsExactly("Al");
+    }
+
+    @Test
+    void search_ShouldFollowUpdatesAndDeletes() {
+        User created = userService.createUser(new User("Carol Danvers", "carol@example.com"));
+        assertThat(searchService.search("danv", false, 10)).hasSize(1);
+
+        userService.updateUser(created.getId(), new User("Carol Marvel", "captain@example.com"));
+        assertThat(searchService.search("danv", false, 10)).isEmpty();
+        assertThat(searchService.search("marv", false, 10)).extracting(User::getId).containsExactly(created.getId());
+
+        userService.deleteUser(created.getId());
+        assertThat(searchService.search("marv", false, 10)).isEmpty();
+    }
+
+    @Test
+    void search_AfterReindexingAnOlderUser_ShouldKeepIdOrderWithoutDuplicates() {
+        User later = userService.createUser(new User("Zed Later", "zed@example.org"));
+        userService.updateUser(1L, new User("John Doe", "john.doe@example.org"));
+        userService.updateUser(1L, new User("John Doe", "john.doe@example.com"));
+        userService.updateUser(1L, new User("John Doe", "john.doe@example.org"));
+
+        assertThat(searchService.search("example.org", false, 10)).extracting(User::getId)
+                .containsExactly(1L, later.getId());
+        assertThat(searchService.search("example", false, 2)).extracting(User::getId)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void search_WithCommonAndRareTrigrams_ShouldOnlyReturnUsersContainingAll() {
+        for (int i = 0; i < 200; i++) {
+            userService.createUser(new User("Tester " + i, "tester" + i + "@example.com"));
+        }
+        User rare = userService.createUser(new User("Quinn", "quinn@zyx.example.com"));
+
+        assertThat(searchService.search("zyx.exa", false, 10)).extracting(User::getId).containsExactly(rare.getId());
+        assertThat(searchService.search("com.exa", false, 10)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldRespectLimit() {
+        for (int i = 0; i < 50; i++) {
+            userService.createUser(new User("Tester " + i, "tester" + i + "@example.com"));
+        }
+
+        assertThat(searchService.search("tester", false, 5)).hasSize(5);
+    }
+}